@@ -0,0 +1,93 @@
+package org.economicsl.benchmarks;
+
+import org.economicsl.Action;
+import org.economicsl.Agent;
+import org.economicsl.Contract;
+import org.economicsl.NotEnoughGoods;
+import org.economicsl.Simulation;
+import org.economicsl.obligations.Obligation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimal contracts and obligations for the benchmarks.
+ */
+final class Fixtures {
+    private Fixtures() {}
+
+    static abstract class FixedValueContract extends Contract {
+        private final Agent assetParty;
+        private final Agent liabilityParty;
+        private final double value;
+
+        FixedValueContract(Agent assetParty, Agent liabilityParty, double value) {
+            this.assetParty = assetParty;
+            this.liabilityParty = liabilityParty;
+            this.value = value;
+        }
+
+        @Override
+        public Agent getAssetParty() {
+            return assetParty;
+        }
+
+        @Override
+        public Agent getLiabilityParty() {
+            return liabilityParty;
+        }
+
+        @Override
+        public double getValue(Agent me) {
+            return value;
+        }
+
+        @Override
+        public List<Action> getAvailableActions(Agent me) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getName(Agent me) {
+            return getClass().getSimpleName();
+        }
+    }
+
+    static class Loan extends FixedValueContract {
+        Loan(Agent assetParty, Agent liabilityParty, double value) {
+            super(assetParty, liabilityParty, value);
+        }
+    }
+
+    static class Bond extends FixedValueContract {
+        Bond(Agent assetParty, Agent liabilityParty, double value) {
+            super(assetParty, liabilityParty, value);
+        }
+    }
+
+    static class Repo extends FixedValueContract {
+        Repo(Agent assetParty, Agent liabilityParty, double value) {
+            super(assetParty, liabilityParty, value);
+        }
+    }
+
+    /**
+     * Obligation to pay cash from the liability party to the asset party of a contract.
+     */
+    static class CashObligation extends Obligation {
+        CashObligation(Contract contract, double amount, int timeLeftToPay, Simulation simulation) {
+            super(contract, amount, timeLeftToPay, simulation);
+        }
+
+        @Override
+        public void fulfil() {
+            try {
+                getFrom().getMainLedger().substractCash(getAmount());
+                getTo().addCash(getAmount());
+                setFulfilled();
+            } catch (NotEnoughGoods notEnoughGoods) {
+                // Left unfulfilled
+            }
+        }
+    }
+}
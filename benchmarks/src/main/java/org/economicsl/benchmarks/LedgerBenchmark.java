@@ -0,0 +1,100 @@
+package org.economicsl.benchmarks;
+
+import org.economicsl.Agent;
+import org.economicsl.Contract;
+import org.economicsl.NotEnoughGoods;
+import org.economicsl.Simulation;
+import org.economicsl.accounting.Ledger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger postings and portfolio queries for portfolios of different sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LedgerBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int portfolio;
+
+    private Agent bank;
+    private Agent counterparty;
+    private Ledger ledger;
+    private Contract loan;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Simulation simulation = new Simulation();
+        bank = new Agent("bank", simulation);
+        counterparty = new Agent("counterparty", simulation);
+        ledger = bank.getMainLedger();
+        fill(ledger, bank, counterparty, portfolio);
+        loan = new Fixtures.Loan(bank, counterparty, 1.0);
+    }
+
+    private static void fill(Ledger ledger, Agent bank, Agent counterparty, int portfolio) {
+        ledger.addCash(1e9);
+        ledger.addGoods("bonds", 1e6, 1.0);
+        for (int i = 0; i < portfolio; i++) {
+            switch (i % 3) {
+                case 0:
+                    ledger.addAsset(new Fixtures.Loan(bank, counterparty, 1.0));
+                    break;
+                case 1:
+                    ledger.addAsset(new Fixtures.Bond(bank, counterparty, 1.0));
+                    break;
+                default:
+                    ledger.addLiability(new Fixtures.Repo(counterparty, bank, 1.0));
+            }
+        }
+    }
+
+    /**
+     * Adding and removing the same contract leaves the portfolio at its size, so the ledger can be set up once.
+     */
+    @Benchmark
+    public Ledger addAndRemoveAsset() {
+        ledger.addAsset(loan);
+        ledger.removeAsset(loan);
+        return ledger;
+    }
+
+    @Benchmark
+    public Ledger addAndSubtractGoods() throws NotEnoughGoods {
+        ledger.addGoods("bonds", 10.0, 1.0);
+        ledger.subtractGoods("bonds", 10.0, 1.0);
+        return ledger;
+    }
+
+    @Benchmark
+    public Ledger addAndSubtractCash() throws NotEnoughGoods {
+        ledger.addCash(10.0);
+        ledger.substractCash(10.0);
+        return ledger;
+    }
+
+    @Benchmark
+    public double getAssetValueOfOneType() {
+        return ledger.getAssetValueOf(Fixtures.Loan.class);
+    }
+
+    @Benchmark
+    public double getAssetValueOfSupertype() {
+        return ledger.getAssetValueOf(Contract.class);
+    }
+
+    @Benchmark
+    public double getBalanceSheetTotals() {
+        return ledger.getAssetValue() - ledger.getLiabilityValue() + ledger.getEquityValue();
+    }
+}
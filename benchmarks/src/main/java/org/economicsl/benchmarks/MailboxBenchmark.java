@@ -0,0 +1,74 @@
+package org.economicsl.benchmarks;
+
+import org.economicsl.Agent;
+import org.economicsl.Mailbox;
+import org.economicsl.Message;
+import org.economicsl.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A round of delivering messages to a Mailbox, stepping it and reading the messages back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MailboxBenchmark {
+    private static final String[] TOPICS = {"price", "order", "margin call", "redemption"};
+
+    @Param({"10", "1000", "100000"})
+    public int messages;
+
+    private Mailbox mailbox;
+    private Message[] delivered;
+
+    @Setup
+    public void setUp() {
+        Agent sender = new Agent("sender", new Simulation());
+        mailbox = new Mailbox();
+        delivered = new Message[messages];
+        for (int i = 0; i < messages; i++) {
+            delivered[i] = new Message(sender, TOPICS[i % TOPICS.length], i);
+        }
+    }
+
+    @Benchmark
+    public List<Message> step() {
+        for (Message message : delivered) {
+            mailbox.receiveMessage(message);
+        }
+        mailbox.step();
+        return mailbox.get_massages();
+    }
+
+    @Benchmark
+    public List<Message> stepByTopic() {
+        for (Message message : delivered) {
+            mailbox.receiveMessage(message);
+        }
+        mailbox.step();
+        for (int i = 1; i < TOPICS.length; i++) {
+            mailbox.get_massages(TOPICS[i]);
+        }
+        return mailbox.get_massages(TOPICS[0]);
+    }
+
+    @Benchmark
+    public void stepAndDrain(Blackhole blackhole) {
+        for (Message message : delivered) {
+            mailbox.receiveMessage(message);
+        }
+        mailbox.step();
+        mailbox.drain_messages(blackhole::consume);
+    }
+}
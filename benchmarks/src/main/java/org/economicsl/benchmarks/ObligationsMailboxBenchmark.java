@@ -0,0 +1,66 @@
+package org.economicsl.benchmarks;
+
+import org.economicsl.Agent;
+import org.economicsl.Simulation;
+import org.economicsl.obligations.ObligationsAndGoodsMailbox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stepping an ObligationsAndGoodsMailbox that holds a large calendar of obligations with long maturities, and
+ * settling the ones that fall due. Every settled obligation is replaced by a new one, so the calendar keeps its size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObligationsMailboxBenchmark {
+    private static final int MATURITIES = 10000;
+
+    @Param({"1000", "100000"})
+    public int obligations;
+
+    private Simulation simulation;
+    private ObligationsAndGoodsMailbox mailbox;
+    private Fixtures.Loan loan;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        simulation = new Simulation();
+        Agent creditor = new Agent("creditor", simulation);
+        Agent debtor = new Agent("debtor", simulation);
+        debtor.addCash(1e12);
+        mailbox = new ObligationsAndGoodsMailbox(simulation);
+
+        Random random = new Random(42);
+        loan = new Fixtures.Loan(creditor, debtor, 1.0);
+        for (int i = 0; i < obligations; i++) {
+            int timeLeftToPay = 1 + random.nextInt(MATURITIES);
+            mailbox.receiveObligation(new Fixtures.CashObligation(loan, 1.0, timeLeftToPay, simulation));
+        }
+        mailbox.step();
+        simulation.advance_time();
+        mailbox.step();
+    }
+
+    @Benchmark
+    public double step() {
+        double matured = mailbox.getMaturedObligations();
+        mailbox.fulfilMaturedRequests();
+        for (int i = 0; i < (int) matured; i++) {
+            mailbox.receiveObligation(new Fixtures.CashObligation(loan, 1.0, MATURITIES, simulation));
+        }
+        mailbox.step();
+        simulation.advance_time();
+        return matured + mailbox.getAllPendingObligations();
+    }
+}
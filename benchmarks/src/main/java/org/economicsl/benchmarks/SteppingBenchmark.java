@@ -0,0 +1,69 @@
+package org.economicsl.benchmarks;
+
+import org.economicsl.Agent;
+import org.economicsl.NotEnoughGoods;
+import org.economicsl.Scheduler;
+import org.economicsl.Simulation;
+import org.economicsl.Trade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full simulation step with N agents: every agent gives cash and sends a message to its neighbour, then the whole
+ * population is stepped through the Scheduler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SteppingBenchmark {
+    @Param({"100", "10000"})
+    public int agents;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Simulation simulation;
+    private Scheduler scheduler;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        simulation = new Simulation();
+        scheduler = new Scheduler(simulation, threads);
+        for (int i = 0; i < agents; i++) {
+            new Trade(Integer.toString(i), simulation).addCash(1e9);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public Simulation step() {
+        List<Agent> population = simulation.getAgents();
+        scheduler.forEachAgent(agent -> {
+            Agent neighbour = population.get((agent.getId() + 1) % population.size());
+            try {
+                ((Trade) agent).give(neighbour, "cash", 1.0);
+            } catch (NotEnoughGoods notEnoughGoods) {
+                throw new IllegalStateException(notEnoughGoods);
+            }
+            agent.message(neighbour, "hello", agent.getId());
+            agent.get_messages();
+        });
+        scheduler.step();
+        return simulation;
+    }
+}
@@ -10,7 +10,7 @@ public abstract class Action {
     }
 
     public void perform() {
-        System.out.println("Model.actionsRecorder.recordAction(this); not called because deleted");
+        getSimulation().getEventSink().actionPerformed(this);
     }
 
     private double amount;
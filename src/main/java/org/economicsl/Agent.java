@@ -5,18 +5,30 @@ import org.economicsl.obligations.Obligation;
 import org.economicsl.obligations.ObligationMessage;
 import org.economicsl.obligations.ObligationsAndGoodsMailbox;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Created by taghawi on 05/04/17.
  */
-public class Agent {
+public class Agent implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     protected String name;
     private Simulation simulation;
-    protected boolean alive = true;
-    protected ObligationsAndGoodsMailbox obligationsAndGoodsMailbox;
-    protected Mailbox mailbox;
-    Ledger mainLedger;
+    private final int id;
+    // Only changed through setAlive, so that creditors drop the obligations of a dead agent from their outboxes
+    private boolean alive = true;
+    // Written by the Simulation after all agents (see writeState), rather than as part of the agent
+    protected transient ObligationsAndGoodsMailbox obligationsAndGoodsMailbox;
+    protected transient Mailbox mailbox;
+    transient Ledger mainLedger;
+    private RandomStream random;
 
 
     public Agent(String name, Simulation simulation) {
@@ -24,13 +36,21 @@ public class Agent {
         this.simulation = simulation;
         this.mailbox = new Mailbox();
         mainLedger = new Ledger(this);
-        this.obligationsAndGoodsMailbox = new ObligationsAndGoodsMailbox();
+        this.obligationsAndGoodsMailbox = new ObligationsAndGoodsMailbox(simulation);
+        this.id = simulation.register(this);
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * @return the position of this agent in the population of its Simulation
+     */
+    public int getId() {
+        return id;
+    }
+
     public void add(Contract contract) {
         if (contract.getAssetParty() == this) {
             // This contract is an asset for me.
@@ -65,11 +85,16 @@ public class Agent {
         return alive;
     }
 
+    public void setAlive(boolean alive) {
+        if (this.alive && !alive) simulation.agentDied();
+        this.alive = alive;
+    }
+
     public void step() {
-        for (GoodMessage good_message: obligationsAndGoodsMailbox.goods_inbox) {
+        GoodMessage good_message;
+        while ((good_message = obligationsAndGoodsMailbox.goods_inbox.poll()) != null) {
             getMainLedger().addGoods(good_message.good_name, good_message.amount, good_message.value);
         }
-        obligationsAndGoodsMailbox.goods_inbox.clear();
         obligationsAndGoodsMailbox.step();
         mailbox.step();
     }
@@ -86,6 +111,7 @@ public class Agent {
 
     public void receiveObligation(Obligation obligation) {
         obligationsAndGoodsMailbox.receiveObligation(obligation);
+        simulation.getEventSink().obligationReceived(this, obligation);
     }
 
     public void receiveMessage(ObligationMessage msg) {
@@ -94,6 +120,7 @@ public class Agent {
 
     public void receiveGoodMessage(GoodMessage good_message) {
         obligationsAndGoodsMailbox.receiveGoodMessage(good_message);
+        simulation.getEventSink().goodsReceived(this, good_message);
     }
 
     public void printMailbox() {
@@ -110,23 +137,77 @@ public class Agent {
         mailbox.receiveMessage(message);
     }
 
-    public HashSet<Message> get_messages() {
+    public List<Message> get_messages() {
         return mailbox.get_massages();
     }
 
-    private HashSet<Message> get_messages(String topic) {
+    public List<Message> get_messages(String topic) {
         return mailbox.get_massages(topic);
     }
 
+    /**
+     * Like get_messages(), but hands the messages to an action rather than collecting them in a new list.
+     */
+    public void drain_messages(Consumer<? super Message> action) {
+        mailbox.drain_messages(action);
+    }
+
+    public void drain_messages(String topic, Consumer<? super Message> action) {
+        mailbox.drain_messages(topic, action);
+    }
+
     public HashSet<Obligation> get_obligation_inbox() {
         return obligationsAndGoodsMailbox.getObligation_inbox();
     }
 
+    public List<Obligation> get_obligations_due() {
+        return obligationsAndGoodsMailbox.getObligationsDue();
+    }
+
     public HashSet<Obligation> get_obligation_outbox() {
         return obligationsAndGoodsMailbox.getObligation_outbox();
     }
 
+    /**
+     * @return the random stream of this agent for the current timestep. Its draws only depend on the seed of the
+     * simulation, the id of this agent, the timestep and the number of draws made before in the same timestep.
+     */
+    public RandomStream random() {
+        if (random == null) {
+            random = new RandomStream(simulation.getSeed(), id, simulation.getTime());
+        }
+        return random.at(simulation.getSeed(), id, simulation.getTime());
+    }
+
+    /**
+     * Brings the agent back to the state it was created in, with an empty ledger and empty mailboxes, so that it can
+     * be reused for a new run of its simulation. Subclasses with state of their own should extend this.
+     */
+    public void reset() {
+        alive = true;
+        random = null;
+        mainLedger.clear();
+        mailbox.clear();
+        obligationsAndGoodsMailbox.clear();
+    }
+
     public Simulation getSimulation() {
         return simulation;
     }
+
+    /**
+     * Writes the ledger and mailboxes of this agent. Called by the Simulation once every agent has been written, so
+     * that the counterparties of its contracts and obligations are written as references to agents already written.
+     */
+    void writeState(ObjectOutputStream out) throws IOException {
+        out.writeObject(mainLedger);
+        out.writeObject(mailbox);
+        out.writeObject(obligationsAndGoodsMailbox);
+    }
+
+    void readState(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        mainLedger = (Ledger) in.readObject();
+        mailbox = (Mailbox) in.readObject();
+        obligationsAndGoodsMailbox = (ObligationsAndGoodsMailbox) in.readObject();
+    }
 }
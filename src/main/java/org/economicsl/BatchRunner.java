@@ -0,0 +1,92 @@
+package org.economicsl;
+
+import org.economicsl.reporting.ResultWriter;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a batch of independent scenarios, one per seed, in parallel on a ForkJoinPool of its own. Each scenario runs
+ * on one thread, and reuses a Simulation left behind by a finished scenario when there is one.
+ *
+ * The seed of each scenario seeds its random streams and is recorded as its simulation number in the ResultWriter.
+ */
+public class BatchRunner {
+    private final ForkJoinPool pool;
+    private final ConcurrentLinkedQueue<Simulation> simulations = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Runs the scenarios on a pool with one thread per available processor.
+     */
+    public BatchRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs the scenarios on a pool with the given number of threads.
+     */
+    public BatchRunner(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Runs the scenarios with seeds fromSeed (inclusive) to toSeed (exclusive) for the given number of timesteps each,
+     * returning once all of them are done. Each scenario is recorded at timestep 0 and after every step.
+     *
+     * @param results where the metrics are recorded, or null
+     */
+    public void run(ScenarioFactory factory, long fromSeed, long toSeed, int timesteps, ResultWriter results) {
+        pool.invoke(new Batch(factory, fromSeed, toSeed, timesteps, results));
+    }
+
+    private void runScenario(ScenarioFactory factory, long seed, int timesteps, ResultWriter results) {
+        Simulation simulation = simulations.poll();
+        if (simulation == null) simulation = new Simulation();
+        simulation.setSeed(seed);
+        simulation.reset();
+        factory.setUp(simulation, seed);
+        if (results != null) results.record(seed, simulation);
+        for (int t = 0; t < timesteps; t++) {
+            factory.step(simulation);
+            if (results != null) results.record(seed, simulation);
+        }
+        simulations.offer(simulation);
+    }
+
+    /**
+     * Releases the threads of the pool.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ScenarioFactory factory;
+        private final long from;
+        private final long to;
+        private final int timesteps;
+        private final ResultWriter results;
+
+        Batch(ScenarioFactory factory, long from, long to, int timesteps, ResultWriter results) {
+            this.factory = factory;
+            this.from = from;
+            this.to = to;
+            this.timesteps = timesteps;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) runScenario(factory, from, timesteps, results);
+            } else {
+                long middle = from + (to - from) / 2;
+                invokeAll(new Batch(factory, from, middle, timesteps, results),
+                        new Batch(factory, middle, to, timesteps, results));
+            }
+        }
+    }
+}
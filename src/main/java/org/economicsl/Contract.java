@@ -1,18 +1,39 @@
 package org.economicsl;
 
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * Created by taghawi on 06/04/17.
  */
-public abstract class Contract {
+public abstract class Contract implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int valuationVersion;
+
     public abstract Agent getAssetParty();
 
     public abstract Agent getLiabilityParty();
 
+    /**
+     * Ledgers cache the values of their contracts for the rest of the timestep (see invalidateValue), so this should
+     * only depend on the state of the contract, the time and the prices of the simulation.
+     */
     public abstract double getValue(Agent me);
 
+    /**
+     * Tells the ledgers holding this contract that its value has to be recomputed, because the state it is valued
+     * from has changed.
+     */
+    public void invalidateValue() {
+        valuationVersion++;
+    }
+
+    public int getValuationVersion() {
+        return valuationVersion;
+    }
+
     public abstract List<Action> getAvailableActions(Agent me);
 
     public abstract String getName(Agent me);
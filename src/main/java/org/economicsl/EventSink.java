@@ -0,0 +1,17 @@
+package org.economicsl;
+
+import org.economicsl.obligations.Obligation;
+
+/**
+ * Receives the events of a Simulation, for tracing and debugging. Events are reported from the thread of the agent
+ * concerned, so implementations have to be thread-safe.
+ */
+public interface EventSink {
+    EventSink NONE = new EventSink() {};
+
+    default void obligationReceived(Agent recipient, Obligation obligation) {}
+
+    default void goodsReceived(Agent recipient, GoodMessage good_message) {}
+
+    default void actionPerformed(Action action) {}
+}
@@ -1,9 +1,13 @@
 package org.economicsl;
 
+import java.io.Serializable;
+
 /**
  * Created by taghawi on 30/03/17.
  */
-public class GoodMessage {
+public class GoodMessage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     public final String good_name;
     public final double amount;
     public final double value;
@@ -1,52 +1,107 @@
 package org.economicsl;
 
-import java.util.HashSet;
-import java.util.stream.Collectors;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
-public class Mailbox {
+/**
+ * Messages are bucketed by topic when they are taken into the inbox, so retrieving the messages on one topic only
+ * costs the number of messages on that topic.
+ *
+ * get_massages() and get_massages(topic) return a new list that belongs to the caller. drain_messages() and
+ * drain_messages(topic) hand the messages to an action instead, and allocate nothing.
+ */
+public class Mailbox implements Serializable {
+    private static final long serialVersionUID = 1L;
 
-    private HashSet<Message> message_inbox;
-    private HashSet<Message> message_unopened;
+    private final HashMap<String, Topic> message_inbox;
+    private final ArrayList<Topic> topics;
+    // Messages are delivered from the sender's thread, so they are queued lock-free until the owner calls step()
+    private final ConcurrentLinkedQueue<Message> message_unopened;
 
 
     public Mailbox() {
-        this.message_unopened = new HashSet<Message>();
-        this.message_inbox = new HashSet<Message>();
+        this.message_unopened = new ConcurrentLinkedQueue<>();
+        this.message_inbox = new HashMap<>();
+        this.topics = new ArrayList<>();
     }
 
     public void receiveMessage(Message msg) {
-        message_unopened.add(msg);
+        message_unopened.offer(msg);
         //System.out.println("ObligationMessage sent. " + msg.getSender().getName() +
         //        " message: " + msg.getMessage());
     }
 
     public void step() {
-        // Move all messages in the obligation_unopened to the obligation_inbox
-        message_inbox.addAll(
-                message_unopened.stream()  // what is this
-                        .collect(Collectors.toCollection(HashSet::new)));
+        // Move all messages in the message_unopened to the bucket of their topic
+        Message message;
+        while ((message = message_unopened.poll()) != null) {
+            Topic topic = message_inbox.get(message.getTopic());
+            if (topic == null) {
+                topic = new Topic();
+                message_inbox.put(message.getTopic(), topic);
+                topics.add(topic);
+            }
+            topic.inbox.add(message);
+        }
+    }
 
-        message_unopened = new HashSet<Message>();
+    /**
+     * Discards all messages, keeping the topic buckets.
+     */
+    public void clear() {
+        message_unopened.clear();
+        for (Topic topic : topics) {
+            topic.inbox.clear();
+        }
+    }
 
-        // Move all messages in the obligation_unopened to the obligation_inbox
+    public List<Message> get_massages() {
+        ArrayList<Message> messages = new ArrayList<>();
+        drain_messages(messages::add);
+        return messages;
     }
 
-    public HashSet<Message> get_massages() {
-        HashSet<Message> messages = message_inbox;
-        message_inbox = new HashSet<>();
+    public List<Message> get_massages(String topic) {
+        Topic bucket = message_inbox.get(topic);
+        if (bucket == null || bucket.inbox.isEmpty()) return new ArrayList<>();
+
+        ArrayList<Message> messages = new ArrayList<>(bucket.inbox);
+        bucket.inbox.clear();
         return messages;
     }
 
-    public HashSet<Message> get_massages(String topic) {
-        //TODO this is probably fucking inefficient
-        HashSet<Message> filtered_messages = new HashSet<Message>();
-        for (Message message : message_inbox) {
-            if (message.getTopic() == topic) {
-                filtered_messages.add(message);
-                message_inbox.remove(message);
-            }
+    /**
+     * Removes every message from the inbox, handing each of them to an action.
+     */
+    public void drain_messages(Consumer<? super Message> action) {
+        for (Topic topic : topics) {
+            drain(topic, action);
         }
-        return filtered_messages;
     }
-}
 
+    /**
+     * Removes the messages on a topic from the inbox, handing each of them to an action.
+     */
+    public void drain_messages(String topic, Consumer<? super Message> action) {
+        Topic bucket = message_inbox.get(topic);
+        if (bucket != null) drain(bucket, action);
+    }
+
+    private static void drain(Topic topic, Consumer<? super Message> action) {
+        ArrayList<Message> inbox = topic.inbox;
+        for (int i = 0; i < inbox.size(); i++) {
+            action.accept(inbox.get(i));
+        }
+        inbox.clear();
+    }
+
+    private static class Topic implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<Message> inbox = new ArrayList<>();
+    }
+}
@@ -0,0 +1,229 @@
+package org.economicsl;
+
+import org.economicsl.accounting.GoodId;
+import org.economicsl.accounting.Ledger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * A market on which agents sell and buy goods against cash, cleared in one batch per good. Orders may be submitted
+ * from several threads during a step; clear() then executes them all at the price that the net amount sold leads to.
+ * The orders of an agent are capped jointly by what it holds unencumbered, and all caps are applied before the first
+ * ledger changes.
+ */
+public class Market {
+    private final Simulation simulation;
+    private final HashMap<String, Book> books = new HashMap<>();
+    private final ArrayList<Book> bookList = new ArrayList<>();
+
+    public Market(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    /**
+     * Lists a good on this market.
+     */
+    public void addGood(String name, double price, PriceImpact priceImpact) {
+        Book book = new Book(name, price, priceImpact);
+        books.put(name, book);
+        bookList.add(book);
+    }
+
+    public void sell(Agent seller, String good, double amount) {
+        if (amount < 0.0) throw new IllegalArgumentException("Negative amount " + amount);
+        book(good).sell(seller, amount);
+    }
+
+    public void buy(Agent buyer, String good, double amount) {
+        if (amount < 0.0) throw new IllegalArgumentException("Negative amount " + amount);
+        book(good).buy(buyer, amount);
+    }
+
+    private Book book(String good) {
+        Book book = books.get(good);
+        if (book == null) throw new IllegalArgumentException(good + " is not traded on this market");
+        return book;
+    }
+
+    public double getPrice(String good) {
+        return book(good).price;
+    }
+
+    /**
+     * @return the amount of a good sold on this market since it was listed
+     */
+    public double getTotalAmountSold(String good) {
+        return book(good).totalAmountSold;
+    }
+
+    /**
+     * Clears the orders of every good submitted since the last call. Must not run concurrently with sell() or buy().
+     */
+    public void clear() {
+        for (Book book : bookList) {
+            book.clear();
+        }
+    }
+
+    private class Book {
+        private final String name;
+        private final int good;
+        private final PriceImpact priceImpact;
+        private double price;
+        private double totalAmountSold;
+
+        private Agent[] sellers = new Agent[16];
+        private double[] sellAmounts = new double[16];
+        private int sells;
+        private Agent[] buyers = new Agent[16];
+        private double[] buyAmounts = new double[16];
+        private int buys;
+        private final IdentityHashMap<Agent, Integer> slots = new IdentityHashMap<>();
+
+        Book(String name, double price, PriceImpact priceImpact) {
+            this.name = name;
+            this.good = GoodId.of(name);
+            this.price = price;
+            this.priceImpact = priceImpact;
+        }
+
+        synchronized void sell(Agent seller, double amount) {
+            if (sells == sellers.length) {
+                sellers = Arrays.copyOf(sellers, 2 * sells);
+                sellAmounts = Arrays.copyOf(sellAmounts, 2 * sells);
+            }
+            sellers[sells] = seller;
+            sellAmounts[sells++] = amount;
+        }
+
+        synchronized void buy(Agent buyer, double amount) {
+            if (buys == buyers.length) {
+                buyers = Arrays.copyOf(buyers, 2 * buys);
+                buyAmounts = Arrays.copyOf(buyAmounts, 2 * buys);
+            }
+            buyers[buys] = buyer;
+            buyAmounts[buys++] = amount;
+        }
+
+        synchronized void clear() {
+            sells = aggregate(sellers, sellAmounts, sells);
+            buys = aggregate(buyers, buyAmounts, buys);
+            double sold = 0.0;
+            for (int i = 0; i < sells; i++) {
+                sellAmounts[i] = Math.min(sellAmounts[i], sellers[i].getMainLedger().getUnencumbered(good));
+                sold += sellAmounts[i];
+            }
+            double wanted = 0.0;
+            for (int i = 0; i < buys; i++) {
+                wanted += buyAmounts[i];
+            }
+            if (sold > 0.0 || wanted > 0.0) execute(sold, wanted);
+
+            Arrays.fill(sellers, 0, sells, null);
+            Arrays.fill(buyers, 0, buys, null);
+            sells = 0;
+            buys = 0;
+        }
+
+        /**
+         * Merges the orders of each agent into one, so that caps apply to all of an agent's orders jointly.
+         *
+         * @return the number of orders left
+         */
+        private int aggregate(Agent[] agents, double[] amounts, int n) {
+            slots.clear();
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                Integer slot = slots.get(agents[i]);
+                if (slot == null) {
+                    slots.put(agents[i], k);
+                    agents[k] = agents[i];
+                    amounts[k++] = amounts[i];
+                } else {
+                    amounts[slot] += amounts[i];
+                }
+            }
+            Arrays.fill(agents, k, n, null);
+            slots.clear();
+            return k;
+        }
+
+        /**
+         * Caps every order before the first ledger changes, so that the orders are executed completely or not at all.
+         */
+        private void execute(double sold, double wanted) {
+            for (int i = 0; i < sells; i++) {
+                slots.put(sellers[i], i);
+            }
+            // A buyer pays with its unencumbered cash and with what it sells of the good itself
+            double[] cash = new double[buys];
+            double[] sales = new double[buys];
+            for (int i = 0; i < buys; i++) {
+                Integer sale = slots.get(buyers[i]);
+                cash[i] = buyers[i].getMainLedger().getUnencumberedCash();
+                sales[i] = sale == null ? 0.0 : sellAmounts[sale];
+            }
+            slots.clear();
+
+            // The buyers that cannot pay for their orders only move the price by what they can buy, and what they can
+            // buy depends on the price. The price at which the capped orders clear lies between the prices with no
+            // buying and with every order filled, and is found by bisection.
+            double low = priceAt(0.0, sold);
+            double high = priceAt(wanted, sold);
+            for (int iteration = 0; iteration < 100 && high - low > 1e-12 * high; iteration++) {
+                double middle = 0.5 * (low + high);
+                if (priceAt(capped(middle, cash, sales, null), sold) <= middle) {
+                    high = middle;
+                } else {
+                    low = middle;
+                }
+            }
+            // Capped at the upper end of the bracket, the orders clear at a price no higher than the caps assumed
+            double[] amounts = new double[buys];
+            double newPrice = priceAt(capped(high, cash, sales, amounts), sold);
+            System.arraycopy(amounts, 0, buyAmounts, 0, buys);
+
+            price = newPrice;
+            totalAmountSold += sold;
+            try {
+                for (int i = 0; i < sells; i++) {
+                    Ledger ledger = sellers[i].getMainLedger();
+                    ledger.subtractGoods(good, sellAmounts[i], ledger.getPhysicalThingValue(good));
+                    ledger.addCash(sellAmounts[i] * price);
+                }
+                for (int i = 0; i < buys; i++) {
+                    Ledger ledger = buyers[i].getMainLedger();
+                    // Only rounding separates the payment from the cap computed above
+                    ledger.substractCash(Math.min(buyAmounts[i] * price, ledger.getUnencumberedCash()));
+                    ledger.addGoods(good, buyAmounts[i], price);
+                }
+            } catch (NotEnoughGoods e) {
+                throw new IllegalStateException("Order of " + name + " exceeds holdings checked beforehand", e);
+            }
+
+            simulation.getHoldings().revalueAll(good, price, true);
+            simulation.invalidateValuations();
+        }
+
+        private double priceAt(double bought, double sold) {
+            return priceImpact.newPrice(price, sold - bought);
+        }
+
+        /**
+         * @param amounts where the capped amount of every buy order is stored, or null
+         * @return the total amount bought when every buyer buys as much of its order as it can pay for at the price
+         */
+        private double capped(double price, double[] cash, double[] sales, double[] amounts) {
+            double bought = 0.0;
+            for (int i = 0; i < buys; i++) {
+                double amount = price > 0.0 ? Math.min(buyAmounts[i], cash[i] / price + sales[i]) : buyAmounts[i];
+                if (amounts != null) amounts[i] = amount;
+                bought += amount;
+            }
+            return bought;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package org.economicsl;
 
+import java.io.Serializable;
+
+
+public class Message implements Serializable {
+    private static final long serialVersionUID = 1L;
 
-public class Message {
     private final String topic;
     private final Object message;
     public final Agent sender;
@@ -7,6 +7,8 @@ package org.economicsl;
  * @version 1.0
  */
 public class NotEnoughGoods extends Exception {
+    private static final long serialVersionUID = 1L;
+
     private final double available;
     private final double required;
 
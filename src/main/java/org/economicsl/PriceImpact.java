@@ -0,0 +1,29 @@
+package org.economicsl;
+
+/**
+ * How the price of a good moves when a net amount of it is sold on a Market. The price must not rise as the net amount
+ * sold grows.
+ */
+public interface PriceImpact {
+
+    /**
+     * @param price the price before the orders are cleared
+     * @param netAmountSold the amount sold minus the amount bought, negative for net buying
+     * @return the price at which the orders are cleared
+     */
+    double newPrice(double price, double netAmountSold);
+
+    /**
+     * price * exp(-coefficient * netAmountSold), the price impact of the fire-sale models.
+     */
+    static PriceImpact exponential(double coefficient) {
+        return (price, netAmountSold) -> price * Math.exp(-coefficient * netAmountSold);
+    }
+
+    /**
+     * price * (1 - coefficient * netAmountSold), but never below 0.
+     */
+    static PriceImpact linear(double coefficient) {
+        return (price, netAmountSold) -> Math.max(0.0, price * (1.0 - coefficient * netAmountSold));
+    }
+}
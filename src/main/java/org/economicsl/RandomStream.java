@@ -0,0 +1,93 @@
+package org.economicsl;
+
+import java.io.Serializable;
+
+/**
+ * Counter-based stream of random numbers, keyed by (seed, stream, timestep). The n-th draw is a hash of the key and
+ * n, so it does not depend on the thread or on the order in which the agents are stepped. A stream must not be shared
+ * between threads.
+ */
+public class RandomStream implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long seed;
+    private int stream;
+    private int time;
+    private long key;
+    private long counter;
+
+    public RandomStream(long seed, int stream, int time) {
+        rekey(seed, stream, time);
+    }
+
+    /**
+     * Moves this stream to the given key, restarting it from its first draw, unless it is already there.
+     *
+     * @return this stream
+     */
+    public RandomStream at(long seed, int stream, int time) {
+        if (seed != this.seed || stream != this.stream || time != this.time) {
+            rekey(seed, stream, time);
+        }
+        return this;
+    }
+
+    private void rekey(long seed, int stream, int time) {
+        this.seed = seed;
+        this.stream = stream;
+        this.time = time;
+        this.key = mix(mix(mix(seed) ^ stream) ^ time);
+        this.counter = 0;
+    }
+
+    private static long mix(long z) {
+        z += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public long nextLong() {
+        return mix(key + GOLDEN_GAMMA * counter++);
+    }
+
+    /**
+     * @return a uniformly distributed number in [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * @return a uniformly distributed number in [0, bound)
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        // Lemire's multiply-shift with rejection of the biased range
+        long m = (nextLong() >>> 32) * bound;
+        if ((m & 0xFFFFFFFFL) < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while ((m & 0xFFFFFFFFL) < threshold) {
+                m = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * @return a normally distributed number with mean 0 and standard deviation 1
+     */
+    public double nextGaussian() {
+        // Box-Muller, discarding the second variate so that every draw costs the same number of counter steps
+        double u = 1.0 - nextDouble();
+        double v = nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * v);
+    }
+}
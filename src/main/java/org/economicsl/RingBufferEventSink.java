@@ -0,0 +1,186 @@
+package org.economicsl;
+
+import org.economicsl.obligations.Obligation;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventSink that hands events to a background thread through a preallocated ring buffer, and prints them from there.
+ * If the buffer is full the event is dropped and counted, so that tracing never holds up the simulation.
+ */
+public class RingBufferEventSink implements EventSink, AutoCloseable {
+    private static final int OBLIGATION = 0;
+    private static final int GOODS = 1;
+    private static final int ACTION = 2;
+
+    private final Event[] events;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long consumed = 0;
+    private volatile boolean running = true;
+    // Set by the writer before it parks, so that producers only unpark it when it is actually waiting
+    private volatile boolean sleeping = false;
+    private final PrintStream out;
+    private final Thread writer;
+
+    /**
+     * @param capacity number of events that can be waiting to be printed, rounded up to a power of two
+     */
+    public RingBufferEventSink(PrintStream out, int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.events = new Event[size];
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event();
+        }
+        this.mask = size - 1;
+        this.out = out;
+        this.writer = new Thread(this::write, "event-sink");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public RingBufferEventSink(PrintStream out) {
+        this(out, 1 << 16);
+    }
+
+    @Override
+    public void obligationReceived(Agent recipient, Obligation obligation) {
+        // Everything that could throw is read before a slot is claimed, so a claimed slot is always published
+        int time = recipient.getTime();
+        String from = obligation.getFrom().getName();
+        String to = obligation.getTo().getName();
+        long sequence = claim();
+        if (sequence < 0) return;
+        Event event = events[(int) (sequence & mask)];
+        event.type = OBLIGATION;
+        event.time = time;
+        event.first = from;
+        event.second = to;
+        event.amount = obligation.getAmount();
+        event.when = obligation.getTimeToPay();
+        publish(event, sequence);
+    }
+
+    @Override
+    public void goodsReceived(Agent recipient, GoodMessage good_message) {
+        int time = recipient.getTime();
+        long sequence = claim();
+        if (sequence < 0) return;
+        Event event = events[(int) (sequence & mask)];
+        event.type = GOODS;
+        event.time = time;
+        event.first = recipient.getName();
+        event.second = good_message.good_name;
+        event.amount = good_message.amount;
+        event.value = good_message.value;
+        publish(event, sequence);
+    }
+
+    @Override
+    public void actionPerformed(Action action) {
+        int time = action.getTime();
+        String agent = action.getAgent().getName();
+        String name = action.getName();
+        double amount = action.getAmount();
+        long sequence = claim();
+        if (sequence < 0) return;
+        Event event = events[(int) (sequence & mask)];
+        event.type = ACTION;
+        event.time = time;
+        event.first = agent;
+        event.second = name;
+        event.amount = amount;
+        publish(event, sequence);
+    }
+
+    /**
+     * @return the number of events that were dropped because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Prints the events still in the buffer and stops the background thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.flush();
+    }
+
+    /**
+     * @return the sequence number of a free slot, or -1 if the buffer is full
+     */
+    private long claim() {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= events.length) {
+                dropped.incrementAndGet();
+                return -1;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        return sequence;
+    }
+
+    private void publish(Event event, long sequence) {
+        event.sequence = sequence;
+        if (sleeping) LockSupport.unpark(writer);
+    }
+
+    private void write() {
+        StringBuilder line = new StringBuilder();
+        while (running || consumed < claimed.get()) {
+            Event event = events[(int) (consumed & mask)];
+            if (event.sequence != consumed) {
+                // A claimed slot is always published, so wait for it rather than skip it: a slot is only reused
+                // once it has been printed. Checked again after announcing the wait, so a publish is not missed.
+                sleeping = true;
+                if (event.sequence != consumed) {
+                    LockSupport.park(this);
+                }
+                sleeping = false;
+                continue;
+            }
+
+            line.setLength(0);
+            line.append(event.time).append(": ");
+            switch (event.type) {
+                case OBLIGATION:
+                    line.append("Obligation sent. ").append(event.first).append(" must pay ").append(event.amount)
+                            .append(" to ").append(event.second).append(" on timestep ").append(event.when);
+                    break;
+                case GOODS:
+                    line.append("Goods received. ").append(event.first).append(" receives ").append(event.amount)
+                            .append(' ').append(event.second).append(" at value ").append(event.value);
+                    break;
+                case ACTION:
+                    line.append("Action performed. ").append(event.first).append(" -> ").append(event.second)
+                            .append(" amount ").append(event.amount);
+            }
+            out.println(line);
+            consumed++;
+        }
+    }
+
+    private static class Event {
+        private volatile long sequence = -1;
+        private int type;
+        private int time;
+        private String first;
+        private String second;
+        private double amount;
+        private double value;
+        private int when;
+    }
+}
@@ -0,0 +1,25 @@
+package org.economicsl;
+
+/**
+ * Sets up and runs one scenario of a batch. Used by BatchRunner.
+ */
+public interface ScenarioFactory {
+
+    /**
+     * Populates a simulation for the scenario with the given seed.
+     *
+     * The simulation has just been reset, and may still hold the agents of a previous scenario, which should be reused
+     * rather than created again.
+     */
+    void setUp(Simulation simulation, long seed);
+
+    /**
+     * Runs one timestep of the scenario. By default every agent is stepped, in order, and the time is advanced.
+     */
+    default void step(Simulation simulation) {
+        for (Agent agent : simulation.getAgents()) {
+            agent.step();
+        }
+        simulation.advance_time();
+    }
+}
@@ -0,0 +1,92 @@
+package org.economicsl;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Runs the phases of a Simulation over its whole agent population on a ForkJoinPool. Each phase returns once every
+ * agent has been processed, so it acts as a barrier.
+ */
+public class Scheduler {
+    private static final int SLICE = 64;
+
+    private final Simulation simulation;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+
+    /**
+     * Runs the phases on the common ForkJoinPool.
+     */
+    public Scheduler(Simulation simulation) {
+        this.simulation = simulation;
+        this.pool = ForkJoinPool.commonPool();
+        this.ownsPool = false;
+    }
+
+    /**
+     * Runs the phases on a dedicated pool with the given number of threads.
+     */
+    public Scheduler(Simulation simulation, int parallelism) {
+        this.simulation = simulation;
+        this.pool = new ForkJoinPool(parallelism);
+        this.ownsPool = true;
+    }
+
+    /**
+     * Performs an action on every agent in parallel, returning once all agents are done. The action must only
+     * modify the state of the agent it is given.
+     */
+    public void forEachAgent(Consumer<? super Agent> action) {
+        List<Agent> agents = simulation.getAgents();
+        pool.invoke(new Phase(agents, action, 0, agents.size()));
+    }
+
+    /**
+     * Steps every agent in parallel and, once all of them are done, advances the time.
+     */
+    public void step() {
+        forEachAgent(Agent::step);
+        simulation.advance_time();
+    }
+
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Releases the threads of the pool if it was created by this scheduler.
+     */
+    public void shutdown() {
+        if (ownsPool) pool.shutdown();
+    }
+
+    private static class Phase extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Agent> agents;
+        private final Consumer<? super Agent> action;
+        private final int from;
+        private final int to;
+
+        Phase(List<Agent> agents, Consumer<? super Agent> action, int from, int to) {
+            this.agents = agents;
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE) {
+                for (int i = from; i < to; i++) {
+                    action.accept(agents.get(i));
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Phase(agents, action, from, middle), new Phase(agents, action, middle, to));
+            }
+        }
+    }
+}
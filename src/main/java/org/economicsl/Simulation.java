@@ -1,11 +1,34 @@
 package org.economicsl;
 
+import org.economicsl.accounting.HoldingsIndex;
+import org.economicsl.accounting.JournalLog;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Created by taghawi on 06/04/17.
  */
-public class Simulation {
+public class Simulation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     public Simulation() {
+        this(0L);
+    }
+
+    /**
+     * @param seed the seed from which all random streams of this simulation are derived
+     */
+    public Simulation(long seed) {
         this.time = 0;
+        this.agents = new ArrayList<>();
+        this.seed = seed;
     }
 
     public void advance_time() {
@@ -13,8 +36,147 @@ public class Simulation {
     }
 
     private int time;
+    private long seed;
+    private int valuationEpoch;
+    private final AtomicInteger deaths = new AtomicInteger();
+    private final ArrayList<Agent> agents;
+    // Where events and postings go is a property of the run, not of the state, so neither is part of a snapshot
+    private transient EventSink eventSink = EventSink.NONE;
+    private transient JournalLog journalLog;
+    // Rebuilt from the ledgers after deserialization, as it is indexed by GoodId
+    private transient HoldingsIndex holdings = new HoldingsIndex();
+
+    /**
+     * Sets the time back to 0 and resets every agent, so that the population can be reused for a new run.
+     */
+    public void reset() {
+        this.time = 0;
+        for (Agent agent : agents) {
+            agent.reset();
+        }
+        if (journalLog != null) journalLog.openEpoch(time, agents);
+    }
+
+    /**
+     * Invalidates the cached values of all contracts, e.g. after a price change they may depend on.
+     */
+    public void invalidateValuations() {
+        valuationEpoch++;
+    }
+
+    public int getValuationEpoch() {
+        return valuationEpoch;
+    }
+
+    /**
+     * @return the number of times an agent of this simulation has died, see Agent.setAlive
+     */
+    public int getDeaths() {
+        return deaths.get();
+    }
+
+    void agentDied() {
+        deaths.incrementAndGet();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed of the random streams, e.g. before reusing the simulation for a new run.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return a new random stream for the current timestep. Streams with different keys are independent of each
+     * other, and agents use their id as key (see Agent.random()), so other users should pick keys outside that range,
+     * such as negative ones.
+     */
+    public RandomStream randomStream(int key) {
+        return new RandomStream(seed, key, time);
+    }
 
     public int getTime() {
         return time;
     }
+
+    /**
+     * Adds an agent to the population of this simulation. Called by the Agent constructor.
+     * @return the id of the agent, which is its position in the population
+     */
+    synchronized int register(Agent agent) {
+        agents.add(agent);
+        return agents.size() - 1;
+    }
+
+    public EventSink getEventSink() {
+        return eventSink;
+    }
+
+    /**
+     * Sets where the events of this simulation are reported. Tracing is off (EventSink.NONE) by default.
+     */
+    public void setEventSink(EventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    /**
+     * @return the index of which agents' ledgers hold each good
+     */
+    public HoldingsIndex getHoldings() {
+        return holdings;
+    }
+
+    public JournalLog getJournalLog() {
+        return journalLog;
+    }
+
+    /**
+     * Sets the log every account posting of this simulation is appended to, starting a new epoch in it. Nothing is
+     * logged (null) by default.
+     */
+    public void setJournalLog(JournalLog journalLog) {
+        this.journalLog = journalLog;
+        if (journalLog != null) journalLog.openEpoch(time, agents);
+    }
+
+    /**
+     * Captures the current state of this simulation: time, agents, their ledgers, goods, mailboxes and obligations.
+     * Any number of independent copies can be restored from it, so that scenarios sharing a warm-up can be forked
+     * from the end of the warm-up instead of recomputing it.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // All agents first, then their ledgers and mailboxes, so that serialization does not recurse from one
+        // counterparty to the next
+        out.defaultWriteObject();
+        for (Agent agent : agents) {
+            agent.writeState(out);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        for (Agent agent : agents) {
+            agent.readState(in);
+        }
+        eventSink = EventSink.NONE;
+        holdings = new HoldingsIndex();
+        for (Agent agent : agents) {
+            holdings.add(agent.getMainLedger());
+        }
+    }
+
+    /**
+     * @return all agents of this simulation, in the order in which they were created
+     */
+    public List<Agent> getAgents() {
+        return Collections.unmodifiableList(agents);
+    }
 }
@@ -0,0 +1,63 @@
+package org.economicsl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * The serialized state of a Simulation at one point in time, taken by Simulation.snapshot(). Every call to restore()
+ * returns a new, independent copy, with tracing and journal logging switched off.
+ *
+ * Agent and contract subclasses must only hold serializable state (or mark the rest transient).
+ */
+public final class Snapshot {
+    private final byte[] state;
+
+    Snapshot(Simulation simulation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(simulation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not take a snapshot of the simulation", e);
+        }
+        this.state = bytes.toByteArray();
+    }
+
+    private Snapshot(byte[] state) {
+        this.state = state;
+    }
+
+    /**
+     * @return a new copy of the simulation as it was when the snapshot was taken
+     */
+    public Simulation restore() {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            return (Simulation) in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not restore the simulation", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Could not restore the simulation", e);
+        }
+    }
+
+    /**
+     * @return the size of the snapshot in bytes
+     */
+    public int size() {
+        return state.length;
+    }
+
+    /**
+     * @return the snapshot in binary form, e.g. to store it
+     */
+    public byte[] toByteArray() {
+        return state.clone();
+    }
+
+    public static Snapshot fromByteArray(byte[] state) {
+        return new Snapshot(state.clone());
+    }
+}
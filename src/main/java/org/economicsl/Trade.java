@@ -1,11 +1,14 @@
 package org.economicsl;
 
+import org.economicsl.accounting.GoodId;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
 /**
  * Created by taghawi on 30/03/17.
  */
 public class Trade extends Agent {
+    private static final long serialVersionUID = 1L;
+
     public Trade(String name, Simulation simulation) {
         super(name, simulation);
     }
@@ -19,8 +22,9 @@ public class Trade extends Agent {
 
     public void give(Agent recipient, String good_name, double amount_give) throws NotEnoughGoods {
 
-        double value = getMainLedger().getPhysicalThingValue(good_name);
-        getMainLedger().subtractGoods(good_name, amount_give);
+        int good = GoodId.of(good_name);
+        double value = getMainLedger().getPhysicalThingValue(good);
+        getMainLedger().subtractGoods(good, amount_give, value);
         GoodMessage good_message = new GoodMessage(good_name, amount_give, value);
         recipient.receiveGoodMessage(good_message);
     }
@@ -1,19 +1,36 @@
 package org.economicsl.accounting;
 
-public class Account {
+import java.io.Serializable;
+
+public class Account implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     private double balance;
     private AccountType accountType;
     private String name;
+    private Ledger ledger;
+    // Position of this account in its ledger, used to identify it in a JournalLog
+    private int id;
+    // The log this account has been declared to, if any
+    transient JournalLog declaredTo;
 
-    private Account(String name, AccountType accountType, Double startingBalance) {
+    private Account(String name, AccountType accountType, Double startingBalance, Ledger ledger) {
         this.name = name;
         this.accountType = accountType;
         this.balance = startingBalance;
+        this.ledger = ledger;
+        if (ledger != null) this.id = ledger.nextAccountId();
     }
 
     Account(String name, AccountType accountType) {
-        this(name, accountType, 0.0);
+        this(name, accountType, 0.0, null);
+    }
+
+    /**
+     * @param ledger the Ledger owning this account, which is told about every change to its balance
+     */
+    Account(String name, AccountType accountType, Ledger ledger) {
+        this(name, accountType, 0.0, ledger);
     }
 
     public static void doubleEntry(Account debitAccount, Account creditAccount, double amount) {
@@ -22,31 +39,40 @@ public class Account {
     }
 
     /**
-     * A Debit is a positive change for ASSET and EXPENSES accounts, and negative for the rest.
+     * A Debit is a positive change for ASSET, GOOD and EXPENSES accounts, and negative for the rest.
      *
      * @param amount the amount to debit
      */
-    private void debit(double amount) {
-        if ((accountType == AccountType.ASSET) || (accountType == AccountType.EXPENSES)) {
-            balance += amount;
+    void debit(double amount) {
+        if ((accountType == AccountType.ASSET) || (accountType == AccountType.GOOD) || (accountType == AccountType.EXPENSES)) {
+            change(amount);
         } else {
-            balance -= amount;
+            change(-amount);
         }
     }
 
     /**
-     * A Credit is a negative change for ASSET and EXPENSES accounts, and positive for the rest.
+     * A Credit is a negative change for ASSET, GOOD and EXPENSES accounts, and positive for the rest.
      *
      * @param amount the amount to credit
      */
-    private void credit(double amount) {
-        if ((accountType == AccountType.ASSET) || (accountType == AccountType.EXPENSES)) {
-            balance -= amount;
+    void credit(double amount) {
+        if ((accountType == AccountType.ASSET) || (accountType == AccountType.GOOD) || (accountType == AccountType.EXPENSES)) {
+            change(-amount);
         } else {
-            balance += amount;
+            change(amount);
         }
     }
 
+    private void change(double delta) {
+        balance += delta;
+        if (ledger != null) ledger.balanceChanged(this, delta);
+    }
+
+    void clear() {
+        balance = 0.0;
+    }
+
     AccountType getAccountType() {
         return accountType;
     }
@@ -58,4 +84,12 @@ public class Account {
     String getName() {
         return name;
     }
+
+    int getId() {
+        return id;
+    }
+
+    Ledger getLedger() {
+        return ledger;
+    }
 }
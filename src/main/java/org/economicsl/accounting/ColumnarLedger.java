@@ -0,0 +1,144 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Contract;
+import org.economicsl.NotEnoughGoods;
+
+/**
+ * LedgerAPI implementation backed by one row of a ColumnarLedgerStore. It holds nothing but its row, so it can be
+ * created on demand.
+ */
+public class ColumnarLedger implements LedgerAPI {
+    private final ColumnarLedgerStore store;
+    private final int row;
+
+    ColumnarLedger(ColumnarLedgerStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public double getAssetValue() {
+        return store.assetTotal.get(row);
+    }
+
+    public double getLiabilityValue() {
+        return store.liabilityTotal.get(row);
+    }
+
+    public double getEquityValue() {
+        return store.equity.get(row);
+    }
+
+    public double getAssetValueOf(Class<?> contractType) {
+        return store.assetValueOf(contractType, row);
+    }
+
+    public double getLiabilityValueOf(Class<?> contractType) {
+        return store.liabilityValueOf(contractType, row);
+    }
+
+    /**
+     * Adding an asset means debiting the account relevant to that type of contract and crediting equity.
+     * @param contract an Asset contract to add, valued from the point of view of its asset party
+     */
+    public void addAsset(Contract contract) {
+        double value = contract.getValue(contract.getAssetParty());
+        store.assetAccount(contract.getClass()).add(row, value);
+        store.assetTotal.add(row, value);
+        store.equity.add(row, value);
+    }
+
+    /**
+     * Adding a liability means debiting equity and crediting the account relevant to that type of contract.
+     * @param contract a Liability contract to add, valued from the point of view of its liability party
+     */
+    public void addLiability(Contract contract) {
+        double value = contract.getValue(contract.getLiabilityParty());
+        store.liabilityAccount(contract.getClass()).add(row, value);
+        store.liabilityTotal.add(row, value);
+        store.equity.add(row, -value);
+    }
+
+    public double getGood(int good) {
+        ColumnarLedgerStore.GoodColumns columns = store.findGood(good);
+        return columns == null ? 0.0 : columns.quantity.get(row);
+    }
+
+    public double getGood(String name) {
+        int good = GoodId.find(name);
+        return good < 0 ? 0.0 : getGood(good);
+    }
+
+    public double getCash() {
+        return getGood(GoodId.CASH);
+    }
+
+    public void addGoods(int good, double amount, double value) {
+        assert(amount >= 0.0);
+        ColumnarLedgerStore.GoodColumns columns = store.good(good);
+        columns.quantity.add(row, amount);
+        columns.value.add(row, amount * value);
+        store.equity.add(row, amount * value);
+    }
+
+    public void addGoods(String name, double amount, double value) {
+        addGoods(GoodId.of(name), amount, value);
+    }
+
+    public void subtractGoods(int good, double amount, double value) throws NotEnoughGoods {
+        assert(amount >= 0.0);
+        double have = getGood(good);
+        if (amount > have) {
+            throw new NotEnoughGoods(GoodId.nameOf(good), have, amount);
+        }
+        ColumnarLedgerStore.GoodColumns columns = store.good(good);
+        columns.quantity.add(row, -amount);
+        columns.value.add(row, -amount * value);
+        store.equity.add(row, -amount * value);
+    }
+
+    public void subtractGoods(String name, double amount, double value) throws NotEnoughGoods {
+        subtractGoods(GoodId.of(name), amount, value);
+    }
+
+    public void addCash(double amount) {
+        // (dr cash, cr equity)
+        addGoods(GoodId.CASH, amount, 1.0);
+    }
+
+    public void substractCash(double amount) throws NotEnoughGoods {
+        subtractGoods(GoodId.CASH, amount, 1.0);
+    }
+
+    /**
+     * If I've sold an asset, debit cash and credit asset
+     * @param amount the *value* of the asset
+     */
+    public void sellAsset(double amount, Class<? extends Contract> assetType) {
+        store.assetAccount(assetType).add(row, -amount);
+        store.assetTotal.add(row, -amount);
+        ColumnarLedgerStore.GoodColumns cash = store.good(GoodId.CASH);
+        cash.quantity.add(row, amount);
+        cash.value.add(row, amount);
+    }
+
+    /**
+     * Operation to pay back a liability loan; debit liability and credit cash
+     * @param amount amount to pay back
+     * @param liability the loan which is being paid back
+     * @throws NotEnoughGoods if there is less cash than amount, in which case nothing is paid
+     */
+    public void payLiability(double amount, Contract liability) throws NotEnoughGoods {
+        // Pre-condition: liquidity has been raised
+        if (amount > getCash()) throw new NotEnoughGoods(GoodId.nameOf(GoodId.CASH), getCash(), amount);
+
+        store.liabilityAccount(liability.getClass()).add(row, -amount);
+        store.liabilityTotal.add(row, -amount);
+        ColumnarLedgerStore.GoodColumns cash = store.good(GoodId.CASH);
+        cash.quantity.add(row, -amount);
+        cash.value.add(row, -amount);
+    }
+}
@@ -0,0 +1,167 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Agent;
+import org.economicsl.Contract;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Balance sheets of a whole population kept as columns: one column of doubles per account, with one row per agent,
+ * indexed by the agent id. A ColumnarLedger is a view on one row. Columns can be kept off the heap.
+ *
+ * The store sits next to the Ledgers of the agents rather than replacing them, and only keeps balances, not the
+ * contracts themselves.
+ */
+public class ColumnarLedgerStore {
+    private final int rows;
+    private final boolean offHeap;
+
+    final DoubleColumn assetTotal;
+    final DoubleColumn liabilityTotal;
+    final DoubleColumn equity;
+    private final ConcurrentHashMap<Class<? extends Contract>, DoubleColumn> assetAccounts;
+    private final ConcurrentHashMap<Class<? extends Contract>, DoubleColumn> liabilityAccounts;
+    // Quantity and book value of every good, indexed by GoodId
+    private volatile GoodColumns[] goods;
+
+    /**
+     * @param rows the number of agents the store can hold
+     * @param offHeap whether to keep the columns in direct memory rather than on the heap
+     */
+    public ColumnarLedgerStore(int rows, boolean offHeap) {
+        this.rows = rows;
+        this.offHeap = offHeap;
+        this.assetTotal = DoubleColumn.allocate(rows, offHeap);
+        this.liabilityTotal = DoubleColumn.allocate(rows, offHeap);
+        this.equity = DoubleColumn.allocate(rows, offHeap);
+        this.assetAccounts = new ConcurrentHashMap<>();
+        this.liabilityAccounts = new ConcurrentHashMap<>();
+        this.goods = new GoodColumns[0];
+    }
+
+    public ColumnarLedgerStore(int rows) {
+        this(rows, false);
+    }
+
+    /**
+     * @return the ledger kept in the given row
+     */
+    public ColumnarLedger getLedger(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " outside a store of " + rows + " rows");
+        }
+        return new ColumnarLedger(this, row);
+    }
+
+    /**
+     * @return the ledger of an agent, kept in the row given by its id
+     */
+    public ColumnarLedger getLedger(Agent agent) {
+        return getLedger(agent.getId());
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public double getTotalAssetValue() {
+        return assetTotal.sum();
+    }
+
+    public double getTotalLiabilityValue() {
+        return liabilityTotal.sum();
+    }
+
+    public double getTotalEquityValue() {
+        return equity.sum();
+    }
+
+    public double getTotalGood(int good) {
+        GoodColumns columns = findGood(good);
+        return columns == null ? 0.0 : columns.quantity.sum();
+    }
+
+    public double getTotalGood(String name) {
+        int good = GoodId.find(name);
+        return good < 0 ? 0.0 : getTotalGood(good);
+    }
+
+    public double getTotalCash() {
+        return getTotalGood(GoodId.CASH);
+    }
+
+    public double getTotalAssetValueOf(Class<?> contractType) {
+        double total = 0.0;
+        for (Map.Entry<Class<? extends Contract>, DoubleColumn> account : assetAccounts.entrySet()) {
+            if (contractType.isAssignableFrom(account.getKey())) total += account.getValue().sum();
+        }
+        return total;
+    }
+
+    public double getTotalLiabilityValueOf(Class<?> contractType) {
+        double total = 0.0;
+        for (Map.Entry<Class<? extends Contract>, DoubleColumn> account : liabilityAccounts.entrySet()) {
+            if (contractType.isAssignableFrom(account.getKey())) total += account.getValue().sum();
+        }
+        return total;
+    }
+
+    DoubleColumn assetAccount(Class<? extends Contract> contractType) {
+        return assetAccounts.computeIfAbsent(contractType, type -> DoubleColumn.allocate(rows, offHeap));
+    }
+
+    DoubleColumn liabilityAccount(Class<? extends Contract> contractType) {
+        return liabilityAccounts.computeIfAbsent(contractType, type -> DoubleColumn.allocate(rows, offHeap));
+    }
+
+    double valueOf(Map<Class<? extends Contract>, DoubleColumn> accounts, Class<?> contractType, int row) {
+        double total = 0.0;
+        for (Map.Entry<Class<? extends Contract>, DoubleColumn> account : accounts.entrySet()) {
+            if (contractType.isAssignableFrom(account.getKey())) total += account.getValue().get(row);
+        }
+        return total;
+    }
+
+    double assetValueOf(Class<?> contractType, int row) {
+        return valueOf(assetAccounts, contractType, row);
+    }
+
+    double liabilityValueOf(Class<?> contractType, int row) {
+        return valueOf(liabilityAccounts, contractType, row);
+    }
+
+    /**
+     * @return the columns of a good, or null if nobody ever held any of it
+     */
+    GoodColumns findGood(int good) {
+        GoodColumns[] columns = goods;
+        return good < columns.length ? columns[good] : null;
+    }
+
+    GoodColumns good(int good) {
+        GoodColumns columns = findGood(good);
+        return columns != null ? columns : addGood(good);
+    }
+
+    private synchronized GoodColumns addGood(int good) {
+        if (good >= goods.length) {
+            goods = Arrays.copyOf(goods, Math.max(good + 1, GoodId.count()));
+        }
+        if (goods[good] == null) {
+            goods[good] = new GoodColumns(rows, offHeap);
+        }
+        return goods[good];
+    }
+
+    static class GoodColumns {
+        final DoubleColumn quantity;
+        final DoubleColumn value;
+
+        GoodColumns(int rows, boolean offHeap) {
+            quantity = DoubleColumn.allocate(rows, offHeap);
+            value = DoubleColumn.allocate(rows, offHeap);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Contract;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Inventory of contracts bucketed by their concrete class, mirroring the way a Ledger keeps one Account per
+ * contract type. Queries by type are resolved once into the matching buckets and answered with a read-only view of
+ * them, so nothing is copied.
+ */
+class ContractIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final HashMap<Class<? extends Contract>, HashSet<Contract>> buckets;
+    private final HashMap<Class<?>, ArrayList<HashSet<Contract>>> queries;
+    private transient HashMap<Class<?>, Collection<Contract>> views;
+
+    ContractIndex() {
+        buckets = new HashMap<>();
+        queries = new HashMap<>();
+    }
+
+    void add(Contract contract) {
+        HashSet<Contract> bucket = buckets.get(contract.getClass());
+        if (bucket == null) {
+            bucket = new HashSet<>();
+            buckets.put(contract.getClass(), bucket);
+
+            // Extend every query already resolved that this new concrete type belongs to
+            for (HashMap.Entry<Class<?>, ArrayList<HashSet<Contract>>> query : queries.entrySet()) {
+                if (query.getKey().isAssignableFrom(contract.getClass())) {
+                    query.getValue().add(bucket);
+                }
+            }
+        }
+        bucket.add(contract);
+    }
+
+    void remove(Contract contract) {
+        HashSet<Contract> bucket = buckets.get(contract.getClass());
+        if (bucket != null) bucket.remove(contract);
+    }
+
+    /**
+     * Removes all contracts, keeping the buckets and the resolved queries.
+     */
+    void clear() {
+        for (HashSet<Contract> bucket : buckets.values()) {
+            bucket.clear();
+        }
+    }
+
+    private ArrayList<HashSet<Contract>> resolve(Class<?> contractType) {
+        ArrayList<HashSet<Contract>> matching = queries.get(contractType);
+        if (matching == null) {
+            matching = new ArrayList<>();
+            for (HashMap.Entry<Class<? extends Contract>, HashSet<Contract>> bucket : buckets.entrySet()) {
+                if (contractType.isAssignableFrom(bucket.getKey())) {
+                    matching.add(bucket.getValue());
+                }
+            }
+            queries.put(contractType, matching);
+        }
+        return matching;
+    }
+
+    double valueOf(Class<?> contractType, ToDoubleFunction<Contract> valuation) {
+        double total = 0.0;
+        for (HashSet<Contract> bucket : resolve(contractType)) {
+            for (Contract contract : bucket) {
+                total += valuation.applyAsDouble(contract);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return a read-only live view of the contracts of a type
+     */
+    Collection<Contract> ofType(Class<?> contractType) {
+        if (views == null) views = new HashMap<>();
+        Collection<Contract> view = views.get(contractType);
+        if (view == null) {
+            view = new TypeView(resolve(contractType));
+            views.put(contractType, view);
+        }
+        return view;
+    }
+
+    void forEachOfType(Class<?> contractType, Consumer<? super Contract> action) {
+        for (HashSet<Contract> bucket : resolve(contractType)) {
+            for (Contract contract : bucket) {
+                action.accept(contract);
+            }
+        }
+    }
+
+    private static class TypeView extends AbstractCollection<Contract> {
+        private final ArrayList<HashSet<Contract>> buckets;
+
+        TypeView(ArrayList<HashSet<Contract>> buckets) {
+            this.buckets = buckets;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (HashSet<Contract> bucket : buckets) {
+                size += bucket.size();
+            }
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (HashSet<Contract> bucket : buckets) {
+                if (bucket.contains(o)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEach(Consumer<? super Contract> action) {
+            for (HashSet<Contract> bucket : buckets) {
+                for (Contract contract : bucket) {
+                    action.accept(contract);
+                }
+            }
+        }
+
+        @Override
+        public Iterator<Contract> iterator() {
+            if (buckets.size() == 1) return Collections.unmodifiableSet(buckets.get(0)).iterator();
+
+            return new Iterator<Contract>() {
+                private int bucket = 0;
+                private Iterator<Contract> current = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext()) {
+                        if (bucket == buckets.size()) return false;
+                        current = buckets.get(bucket++).iterator();
+                    }
+                    return true;
+                }
+
+                @Override
+                public Contract next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return current.next();
+                }
+            };
+        }
+    }
+}
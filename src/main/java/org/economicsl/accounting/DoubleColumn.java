@@ -0,0 +1,77 @@
+package org.economicsl.accounting;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * A fixed-length column of doubles, one per row of a ColumnarLedgerStore, kept either on the heap or in direct
+ * (off-heap) memory. Different rows may be written concurrently from different threads.
+ */
+abstract class DoubleColumn {
+    abstract double get(int row);
+
+    abstract void add(int row, double delta);
+
+    abstract double sum();
+
+    static DoubleColumn allocate(int rows, boolean offHeap) {
+        return offHeap ? new Direct(rows) : new Heap(rows);
+    }
+
+    private static class Heap extends DoubleColumn {
+        private final double[] values;
+
+        Heap(int rows) {
+            values = new double[rows];
+        }
+
+        @Override
+        double get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void add(int row, double delta) {
+            values[row] += delta;
+        }
+
+        @Override
+        double sum() {
+            double sum = 0.0;
+            for (double value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+    }
+
+    private static class Direct extends DoubleColumn {
+        private final DoubleBuffer values;
+        private final int rows;
+
+        Direct(int rows) {
+            this.rows = rows;
+            this.values = ByteBuffer.allocateDirect(rows * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+
+        @Override
+        double get(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        void add(int row, double delta) {
+            values.put(row, values.get(row) + delta);
+        }
+
+        @Override
+        double sum() {
+            double sum = 0.0;
+            for (int row = 0; row < rows; row++) {
+                sum += values.get(row);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.economicsl.accounting;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global registry interning the names of goods to small consecutive ints, so that a Ledger can keep its goods in
+ * primitive arrays indexed by id instead of maps keyed by name. Ids are handed out in order of first use and never
+ * change for the lifetime of the JVM.
+ */
+public final class GoodId {
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+
+    public static final int CASH = of("cash");
+
+    private GoodId() {}
+
+    /**
+     * @return the id of a good, registering it if it has not been seen before
+     */
+    public static int of(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : register(name);
+    }
+
+    /**
+     * @return the id of a good, or -1 if no good of that name has been registered
+     */
+    public static int find(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return the number of goods registered so far, i.e. one more than the largest id
+     */
+    public static int count() {
+        return names.length;
+    }
+
+    private static synchronized int register(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+
+        String[] registered = Arrays.copyOf(names, names.length + 1);
+        registered[names.length] = name;
+        names = registered;
+        ids.put(name, names.length - 1);
+        return names.length - 1;
+    }
+}
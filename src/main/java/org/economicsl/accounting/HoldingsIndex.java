@@ -0,0 +1,112 @@
+package org.economicsl.accounting;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Index of the ledgers of a population that hold each good, for revaluing a good across the whole population at once.
+ * revalueAll must not run concurrently with the agents whose ledgers it revalues.
+ */
+public class HoldingsIndex {
+    private static final int SLICE = 256;
+
+    // Ledgers holding each good, indexed by GoodId
+    private Ledger[][] holders = new Ledger[0][];
+    private int[] counts = new int[0];
+
+    synchronized void register(int good, Ledger ledger) {
+        if (good >= holders.length) {
+            int length = Math.max(good + 1, 2 * holders.length);
+            holders = Arrays.copyOf(holders, length);
+            counts = Arrays.copyOf(counts, length);
+        }
+        Ledger[] ledgers = holders[good];
+        if (ledgers == null) {
+            ledgers = new Ledger[8];
+        } else if (counts[good] == ledgers.length) {
+            ledgers = Arrays.copyOf(ledgers, 2 * ledgers.length);
+        }
+        ledgers[counts[good]++] = ledger;
+        holders[good] = ledgers;
+    }
+
+    /**
+     * Registers all goods a ledger already has accounts for, e.g. after it has been deserialized.
+     */
+    public void add(Ledger ledger) {
+        for (int good = 0; good < ledger.goodsAccounts.length; good++) {
+            if (ledger.goodsAccounts[good] != null) register(good, ledger);
+        }
+    }
+
+    /**
+     * @return the number of ledgers holding a good
+     */
+    public synchronized int getHolderCount(int good) {
+        return good < counts.length ? counts[good] : 0;
+    }
+
+    public void revalueAll(String good, double price) {
+        revalueAll(good, price, false);
+    }
+
+    /**
+     * Revalues the holdings of a good in every ledger that holds it at the given price per unit.
+     *
+     * @param parallel whether to revalue the ledgers in parallel on the common ForkJoinPool
+     */
+    public void revalueAll(String good, double price, boolean parallel) {
+        int id = GoodId.find(good);
+        if (id >= 0) revalueAll(id, price, parallel);
+    }
+
+    public void revalueAll(int good, double price, boolean parallel) {
+        Ledger[] ledgers;
+        int count;
+        synchronized (this) {
+            if (good >= holders.length || holders[good] == null) return;
+            ledgers = holders[good];
+            count = counts[good];
+        }
+
+        if (parallel && count > SLICE) {
+            ForkJoinPool.commonPool().invoke(new Revaluation(ledgers, good, price, 0, count));
+        } else {
+            for (int i = 0; i < count; i++) {
+                ledgers[i].revalue(good, price);
+            }
+        }
+    }
+
+    private static class Revaluation extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Ledger[] ledgers;
+        private final int good;
+        private final double price;
+        private final int from;
+        private final int to;
+
+        Revaluation(Ledger[] ledgers, int good, double price, int from, int to) {
+            this.ledgers = ledgers;
+            this.good = good;
+            this.price = price;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE) {
+                for (int i = from; i < to; i++) {
+                    ledgers[i].revalue(good, price);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Revaluation(ledgers, good, price, from, middle),
+                        new Revaluation(ledgers, good, price, middle, to));
+            }
+        }
+    }
+}
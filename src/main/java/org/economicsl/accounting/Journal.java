@@ -0,0 +1,101 @@
+package org.economicsl.accounting;
+
+import java.util.Arrays;
+
+/**
+ * A batch of postings that are collected first and applied to their accounts together by commit(), which checks that
+ * the debits equal the credits, so the batch is booked either completely or not at all.
+ */
+public class Journal {
+    private Account[] accounts;
+    // Positive for a debit, negative for a credit
+    private double[] amounts;
+    private int size;
+    private double debits;
+    private double credits;
+
+    public Journal() {
+        accounts = new Account[16];
+        amounts = new double[16];
+    }
+
+    /**
+     * Records a (dr, cr) pair.
+     */
+    public void post(Account debitAccount, Account creditAccount, double amount) {
+        debit(debitAccount, amount);
+        credit(creditAccount, amount);
+    }
+
+    public void debit(Account account, double amount) {
+        add(account, amount);
+        debits += amount;
+    }
+
+    public void credit(Account account, double amount) {
+        add(account, -amount);
+        credits += amount;
+    }
+
+    private void add(Account account, double amount) {
+        if (size == accounts.length) {
+            accounts = Arrays.copyOf(accounts, 2 * size);
+            amounts = Arrays.copyOf(amounts, 2 * size);
+        }
+        accounts[size] = account;
+        amounts[size] = amount;
+        size++;
+    }
+
+    /**
+     * @return the number of legs recorded since the last commit or rollback
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isBalanced() {
+        return Math.abs(debits - credits) <= 1e-9 * Math.max(1.0, Math.abs(debits));
+    }
+
+    /**
+     * Applies all recorded legs to their accounts and empties the journal.
+     *
+     * @throws IllegalStateException if the debits do not equal the credits, in which case nothing is applied
+     */
+    public void commit() {
+        if (!isBalanced()) {
+            throw new IllegalStateException("Journal does not balance: debits " + debits + ", credits " + credits);
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (amounts[i] >= 0.0) {
+                accounts[i].debit(amounts[i]);
+            } else {
+                accounts[i].credit(-amounts[i]);
+            }
+        }
+
+        if (Ledger.isVerifyingTotals()) {
+            for (int i = 0; i < size; i++) {
+                Ledger ledger = accounts[i].getLedger();
+                if (ledger != null && (i == 0 || ledger != accounts[i - 1].getLedger())) ledger.reconcile();
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Discards all legs recorded since the last commit.
+     */
+    public void rollback() {
+        clear();
+    }
+
+    private void clear() {
+        Arrays.fill(accounts, 0, size, null);
+        size = 0;
+        debits = 0.0;
+        credits = 0.0;
+    }
+}
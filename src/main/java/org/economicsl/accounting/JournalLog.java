@@ -0,0 +1,145 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Agent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only binary log of every change to the balance of an Account, written through a memory-mapped file and
+ * read back by JournalReplay.
+ *
+ * The log is divided into epochs, one per run of the simulation, each starting with the opening balance of every
+ * account. Postings are buffered per thread, so they are not in time order in the file, and flush(), close() and
+ * openEpoch() must only be called between steps.
+ */
+public class JournalLog implements AutoCloseable {
+    static final byte END = 0;
+    static final byte ACCOUNT = 1;
+    static final byte POSTING = 2;
+    static final byte EPOCH = 3;
+
+    static final int POSTING_SIZE = 1 + 4 + 4 + 4 + 8;
+    static final int EPOCH_SIZE = 1 + 4 + 4;
+    static final int MAX_RECORD_SIZE = 1 + 4 + 4 + 1 + 2 + 0xFFFF;
+    private static final int CHUNK_SIZE = 64 << 20;
+    private static final int STAGING_SIZE = 256 << 10;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    // Position in the file of the start of buffer
+    private long mapped;
+    private int epoch;
+    private final ArrayList<ByteBuffer> stagingBuffers = new ArrayList<>();
+    private final ThreadLocal<ByteBuffer> staging = ThreadLocal.withInitial(this::newStagingBuffer);
+
+    public JournalLog(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapped = 0;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, mapped, CHUNK_SIZE);
+    }
+
+    private synchronized ByteBuffer newStagingBuffer() {
+        ByteBuffer stagingBuffer = ByteBuffer.allocate(STAGING_SIZE);
+        stagingBuffers.add(stagingBuffer);
+        return stagingBuffer;
+    }
+
+    /**
+     * Called by a Ledger whenever the balance of one of its accounts changes.
+     */
+    void posting(int time, int agentId, Account account, double delta) {
+        ByteBuffer out = staging.get();
+        if (account.declaredTo != this) {
+            declare(out, agentId, account);
+        }
+        if (out.remaining() < POSTING_SIZE) drain(out);
+        out.put(POSTING);
+        out.putInt(time);
+        out.putInt(agentId);
+        out.putInt(account.getId());
+        out.putDouble(delta);
+    }
+
+    private void declare(ByteBuffer out, int agentId, Account account) {
+        byte[] name = account.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF) {
+            throw new IllegalArgumentException("Account name too long for the journal log: " + account.getName());
+        }
+        if (out.remaining() < 1 + 4 + 4 + 1 + 2 + name.length) drain(out);
+        out.put(ACCOUNT);
+        out.putInt(agentId);
+        out.putInt(account.getId());
+        out.put((byte) account.getAccountType().ordinal());
+        out.putShort((short) name.length);
+        out.put(name);
+        account.declaredTo = this;
+    }
+
+    /**
+     * Starts a new epoch at the given timestep, with the current balances of the agents as opening balances. Called
+     * by the Simulation when the log is set and when the simulation is reset.
+     */
+    public synchronized void openEpoch(int time, List<? extends Agent> agents) {
+        drainAll();
+        ensureRemaining(EPOCH_SIZE);
+        buffer.put(EPOCH);
+        buffer.putInt(epoch++);
+        buffer.putInt(time);
+        for (Agent agent : agents) {
+            agent.getMainLedger().forEachAccount(account -> {
+                if (account.getBalance() != 0.0) posting(time, agent.getId(), account, account.getBalance());
+            });
+        }
+        drainAll();
+    }
+
+    private synchronized void drain(ByteBuffer stagingBuffer) {
+        stagingBuffer.flip();
+        ensureRemaining(stagingBuffer.remaining());
+        buffer.put(stagingBuffer);
+        stagingBuffer.clear();
+    }
+
+    private void drainAll() {
+        for (ByteBuffer stagingBuffer : stagingBuffers) {
+            drain(stagingBuffer);
+        }
+    }
+
+    private void ensureRemaining(int size) {
+        if (buffer.remaining() < size) {
+            mapped += buffer.position();
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, mapped, CHUNK_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes everything logged so far through to the file.
+     */
+    public synchronized void flush() {
+        drainAll();
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        drainAll();
+        buffer.force();
+        channel.truncate(mapped + buffer.position());
+        channel.close();
+    }
+}
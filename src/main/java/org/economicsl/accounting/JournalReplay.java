@@ -0,0 +1,171 @@
+package org.economicsl.accounting;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the accounts of every agent from a file written by a JournalLog, as they stood at the end of a given
+ * timestep of a given epoch.
+ *
+ * Usage: java org.economicsl.accounting.JournalReplay journal-file timestep [epoch]
+ */
+public class JournalReplay {
+    private static final int CHUNK_SIZE = 64 << 20;
+
+    /**
+     * @return the replayed accounts of each agent in the first epoch, by agent id
+     */
+    public static TreeMap<Integer, ReplayedLedger> replay(Path file, int timestep) throws IOException {
+        return replay(file, 0, timestep);
+    }
+
+    /**
+     * @return the replayed accounts of each agent, by agent id
+     */
+    public static TreeMap<Integer, ReplayedLedger> replay(Path file, int epoch, int timestep) throws IOException {
+        TreeMap<Integer, ReplayedLedger> ledgers = new TreeMap<>();
+        // Logs without epoch records hold a single run
+        int currentEpoch = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long mapped = 0;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapped, Math.min(CHUNK_SIZE, size));
+
+            while (true) {
+                // Remap ahead of any record that could run past the end of the current chunk
+                if (buffer.remaining() < JournalLog.MAX_RECORD_SIZE && mapped + buffer.limit() < size) {
+                    mapped += buffer.position();
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapped, Math.min(CHUNK_SIZE, size - mapped));
+                }
+                if (!buffer.hasRemaining()) break;
+
+                byte tag = buffer.get();
+                if (tag == JournalLog.POSTING) {
+                    int time = buffer.getInt();
+                    int agentId = buffer.getInt();
+                    int accountId = buffer.getInt();
+                    double delta = buffer.getDouble();
+                    // Postings are only in time order per thread, so later ones are skipped rather than ending
+                    if (currentEpoch == epoch && time <= timestep) ledger(ledgers, agentId).post(accountId, delta);
+                } else if (tag == JournalLog.EPOCH) {
+                    currentEpoch = buffer.getInt();
+                    buffer.getInt();
+                    if (currentEpoch > epoch) break;
+                } else if (tag == JournalLog.ACCOUNT) {
+                    int agentId = buffer.getInt();
+                    int accountId = buffer.getInt();
+                    AccountType type = AccountType.values()[buffer.get()];
+                    byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(name);
+
+                    // Declarations hold for every epoch after them
+                    ledger(ledgers, agentId).declare(accountId, new String(name, StandardCharsets.UTF_8), type);
+                } else {
+                    break;
+                }
+            }
+        }
+        return ledgers;
+    }
+
+    private static ReplayedLedger ledger(TreeMap<Integer, ReplayedLedger> ledgers, int agentId) {
+        ReplayedLedger ledger = ledgers.get(agentId);
+        if (ledger == null) {
+            ledger = new ReplayedLedger();
+            ledgers.put(agentId, ledger);
+        }
+        return ledger;
+    }
+
+    /**
+     * The accounts of one agent, rebuilt from the log.
+     */
+    public static class ReplayedLedger {
+        private final ArrayList<String> names = new ArrayList<>();
+        private final ArrayList<AccountType> types = new ArrayList<>();
+        private double[] balances = new double[8];
+
+        private void declare(int accountId, String name, AccountType type) {
+            while (names.size() <= accountId) {
+                names.add(null);
+                types.add(null);
+            }
+            names.set(accountId, name);
+            types.set(accountId, type);
+            ensureCapacity(accountId);
+        }
+
+        // A posting from one thread can be copied to the file before the declaration made by another
+        private void post(int accountId, double delta) {
+            ensureCapacity(accountId);
+            balances[accountId] += delta;
+        }
+
+        private void ensureCapacity(int accountId) {
+            if (accountId >= balances.length) {
+                balances = Arrays.copyOf(balances, Math.max(2 * balances.length, accountId + 1));
+            }
+        }
+
+        /**
+         * @return the balance of the account with the given name, or 0.0 if it was never posted to
+         */
+        public double getBalance(String name) {
+            int accountId = names.indexOf(name);
+            return accountId < 0 ? 0.0 : balances[accountId];
+        }
+
+        private double total(AccountType type) {
+            double total = 0.0;
+            for (int i = 0; i < types.size(); i++) {
+                if (types.get(i) == type) total += balances[i];
+            }
+            return total;
+        }
+
+        public double getAssetValue() {
+            return total(AccountType.ASSET);
+        }
+
+        public double getLiabilityValue() {
+            return total(AccountType.LIABILITY);
+        }
+
+        public double getEquityValue() {
+            return total(AccountType.EQUITY);
+        }
+
+        public void print() {
+            for (int i = 0; i < names.size(); i++) {
+                if (names.get(i) != null) {
+                    System.out.println(" " + types.get(i) + " " + names.get(i) + ": " + balances[i]);
+                }
+            }
+            System.out.println(" Total assets: " + getAssetValue() + ", liabilities: " + getLiabilityValue()
+                    + ", equity: " + getEquityValue());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 3) {
+            System.err.println("Usage: JournalReplay <journal-file> <timestep> [epoch]");
+            System.exit(1);
+        }
+        int timestep = Integer.parseInt(args[1]);
+        int epoch = args.length == 3 ? Integer.parseInt(args[2]) : 0;
+        for (Map.Entry<Integer, ReplayedLedger> entry : replay(Paths.get(args[0]), epoch, timestep).entrySet()) {
+            System.out.println("Agent " + entry.getKey() + " at timestep " + timestep + ":");
+            entry.getValue().print();
+        }
+    }
+}
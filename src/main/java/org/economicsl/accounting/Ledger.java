@@ -4,9 +4,18 @@ import org.economicsl.Agent;
 import org.economicsl.Contract;
 import org.economicsl.NotEnoughGoods;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
 
 import static org.economicsl.accounting.AccountType.GOOD;
 
@@ -24,33 +33,59 @@ import static org.economicsl.accounting.AccountType.GOOD;
  *
  * @author rafa
  */
-public class Ledger implements LedgerAPI {
+public class Ledger implements LedgerAPI, Serializable {
+    private static final long serialVersionUID = 1L;
+
     protected Agent me;
     protected HashSet<Contract> allAssets;
     protected HashSet<Contract> allLiabilities;
-    protected HashMap<String, Double> allGoods;
+    private final Set<Contract> allAssetsView;
+    private final Set<Contract> allLiabilitiesView;
+    // Quantities and accounts of goods, indexed by GoodId. GoodIds are only valid within one JVM, so these are
+    // serialized by the name of the good instead.
+    protected transient double[] allGoods;
     protected HashSet<Account> assetAccounts;
     protected HashSet<Account> liabilityAccounts;
-    protected HashMap<String, Account> goodsAccounts;
+    protected transient Account[] goodsAccounts;
+    // Quantity of each good pledged as collateral, indexed by GoodId. Never more than the quantity held.
+    protected transient double[] encumbered;
     protected HashSet<Account> equityAccounts;
 
     protected HashMap<Class<? extends Contract>, Account> contractsToAssetAccounts;
 
     protected HashMap<Class<? extends Contract>, Account> contractsToLiabilityAccounts;
+    protected ContractIndex assetIndex;
+    protected ContractIndex liabilityIndex;
     protected Account equityAccount;
     private double initialEquity;
 
+    // Running totals of the balances of assetAccounts, liabilityAccounts and equityAccounts, kept up to date by
+    // Account on every debit and credit.
+    private double assetTotal;
+    private double liabilityTotal;
+    private double equityTotal;
+    private int accountCount;
+    private transient ValuationCache valuations = new ValuationCache();
+    private transient ToDoubleFunction<Contract> valuation = this::valueOf;
+
+    private static boolean verifyTotals = Boolean.getBoolean("economicsl.verifyLedgerTotals");
+
     public Ledger(Agent me) {
         contractsToAssetAccounts = new HashMap<>();
         allAssets = new HashSet<>();
         equityAccounts = new HashSet<>();
         allLiabilities = new HashSet<>();
         liabilityAccounts = new HashSet<>();
-        goodsAccounts = new HashMap<>();
-        allGoods = new HashMap<>();
+        allAssetsView = Collections.unmodifiableSet(allAssets);
+        allLiabilitiesView = Collections.unmodifiableSet(allLiabilities);
+        goodsAccounts = new Account[GoodId.count()];
+        allGoods = new double[GoodId.count()];
+        encumbered = new double[GoodId.count()];
         contractsToLiabilityAccounts = new HashMap<>();
+        assetIndex = new ContractIndex();
+        liabilityIndex = new ContractIndex();
         this.me = me;
-        equityAccount = new Account("equityAccounts", AccountType.EQUITY);
+        equityAccount = new Account("equityAccounts", AccountType.EQUITY, this);
         assetAccounts = new HashSet<>();
 
         // A StressLedger is a list of accounts (for quicker searching)
@@ -62,83 +97,310 @@ public class Ledger implements LedgerAPI {
 
         // A book is initially created with a cash account and an equityAccounts account (it's the simplest possible book)
         addAccount(equityAccount, null);
-
-        allGoods.put("cash", 0.0);
     }
 
     public double getAssetValue() {
-        double assetTotal = 0;
-        for (Account assetAccount : assetAccounts) {
-            assetTotal += assetAccount.getBalance();
-        }
+        if (verifyTotals) verifyTotal("asset", assetTotal, assetAccounts);
         return assetTotal;
     }
 
     public double getLiabilityValue() {
-        double liabilityTotal = 0;
-        for (Account liabilityAccount : liabilityAccounts) {
-            liabilityTotal+=liabilityAccount.getBalance();
-        }
+        if (verifyTotals) verifyTotal("liability", liabilityTotal, liabilityAccounts);
         return liabilityTotal;
     }
 
     public double getEquityValue() {
-        double equityTotal = 0;
-        for (Account equityAccount : equityAccounts) {
-            equityTotal += equityAccount.getBalance();
-        }
+        if (verifyTotals) verifyTotal("equity", equityTotal, equityAccounts);
         return equityTotal;
     }
 
+    /**
+     * Called by an Account of this ledger whenever its balance changes.
+     */
+    void balanceChanged(Account account, double delta) {
+        switch (account.getAccountType()) {
+            case ASSET:
+                assetTotal += delta;
+                break;
+            case LIABILITY:
+                liabilityTotal += delta;
+                break;
+            case EQUITY:
+                equityTotal += delta;
+        }
+
+        if (me != null) {
+            JournalLog log = me.getSimulation().getJournalLog();
+            if (log != null) log.posting(me.getSimulation().getTime(), me.getId(), account, delta);
+        }
+    }
+
+    /**
+     * Empties the ledger so that it can be reused for a new run of the simulation. The accounts are kept, with a zero
+     * balance.
+     */
+    public void clear() {
+        allAssets.clear();
+        allLiabilities.clear();
+        assetIndex.clear();
+        liabilityIndex.clear();
+        valuations.clear();
+        Arrays.fill(allGoods, 0.0);
+        Arrays.fill(encumbered, 0.0);
+        for (Account account : assetAccounts) account.clear();
+        for (Account account : liabilityAccounts) account.clear();
+        for (Account account : equityAccounts) account.clear();
+        for (Account account : goodsAccounts) {
+            if (account != null) account.clear();
+        }
+        assetTotal = 0.0;
+        liabilityTotal = 0.0;
+        equityTotal = 0.0;
+        initialEquity = 0.0;
+    }
+
+    int nextAccountId() {
+        return accountCount++;
+    }
+
+    /**
+     * Debug mode: when switched on, every read of the asset, liability and equity totals is checked against a full
+     * recomputation over the accounts. It can also be switched on with -Deconomicsl.verifyLedgerTotals=true
+     */
+    public static void setVerifyTotals(boolean verify) {
+        verifyTotals = verify;
+    }
+
+    static boolean isVerifyingTotals() {
+        return verifyTotals;
+    }
+
+    /**
+     * Checks the running asset, liability and equity totals against a full recomputation.
+     */
+    void reconcile() {
+        verifyTotal("asset", assetTotal, assetAccounts);
+        verifyTotal("liability", liabilityTotal, liabilityAccounts);
+        verifyTotal("equity", equityTotal, equityAccounts);
+    }
+
+    void forEachAccount(Consumer<Account> action) {
+        assetAccounts.forEach(action);
+        liabilityAccounts.forEach(action);
+        equityAccounts.forEach(action);
+        for (Account account : goodsAccounts) {
+            if (account != null) action.accept(account);
+        }
+    }
+
+    private static void verifyTotal(String what, double runningTotal, HashSet<Account> accounts) {
+        double total = 0.0;
+        double scale = 1.0;
+        for (Account account : accounts) {
+            total += account.getBalance();
+            scale += Math.abs(account.getBalance());
+        }
+        if (Math.abs(total - runningTotal) > 1e-9 * scale) {
+            throw new IllegalStateException("Running " + what + " total " + runningTotal +
+                    " does not match recomputed total " + total);
+        }
+    }
+
     public double getAssetValueOf(Class<?> contractType) {
-//        return contractsToAssetAccounts.get(contractType).getBalance();
-        return allAssets.stream()
-                .filter(contractType::isInstance)
-                .mapToDouble(contract -> contract.getValue(me))
-                .sum();
+        return assetIndex.valueOf(contractType, valuation);
     }
 
     public double getLiabilityValueOf(Class<?> contractType) {
-//        return contractsToLiabilityAccounts.get(contractType).getBalance();
-        return allLiabilities.stream()
-                .filter(contractType::isInstance)
-                .mapToDouble(contract -> contract.getValue(me))
-                .sum();
+        return liabilityIndex.valueOf(contractType, valuation);
+    }
 
+    /**
+     * @return the value of a contract to the owner of this ledger, computed at most once per timestep unless the
+     * contract or the prices of the simulation change in between
+     */
+    public double valueOf(Contract contract) {
+        return me == null ? contract.getValue(null) : valuations.valueOf(contract, me);
     }
 
-    public HashSet<Contract> getAllAssets() {
-        return allAssets;
+    /**
+     * @return a read-only view of all assets, which follows the changes to this ledger
+     */
+    public Set<Contract> getAllAssets() {
+        return allAssetsView;
     }
 
-    public HashSet<Contract> getAllLiabilities() {
-        return allLiabilities;
+    /**
+     * @return a read-only view of all liabilities, which follows the changes to this ledger
+     */
+    public Set<Contract> getAllLiabilities() {
+        return allLiabilitiesView;
     }
 
-    public HashSet<Contract> getAssetsOfType(Class<?> contractType) {
-        return allAssets.stream()
-                .filter(contractType::isInstance)
-                .collect(Collectors.toCollection(HashSet::new));
+    /**
+     * @return a read-only view of the assets of a type (which may be a superclass or an interface), which follows the
+     * changes to this ledger. The view is kept and handed out again on later calls, so nothing is copied.
+     */
+    public Collection<Contract> getAssetsOfType(Class<?> contractType) {
+        return assetIndex.ofType(contractType);
     }
 
-    public HashSet<Contract> getLiabilitiesOfType(Class<?> contractType) {
-        return allLiabilities.stream()
-                .filter(contractType::isInstance)
-                .collect(Collectors.toCollection(HashSet::new));
+    public Collection<Contract> getLiabilitiesOfType(Class<?> contractType) {
+        return liabilityIndex.ofType(contractType);
+    }
 
+    /**
+     * Performs an action on every asset of a type without allocating, e.g. for iterating over them every step.
+     * The action must not add contracts to this ledger.
+     */
+    public void forEachAssetOfType(Class<?> contractType, Consumer<? super Contract> action) {
+        assetIndex.forEachOfType(contractType, action);
+    }
+
+    public void forEachLiabilityOfType(Class<?> contractType, Consumer<? super Contract> action) {
+        liabilityIndex.forEachOfType(contractType, action);
     }
 
     public double getGood(String name) {
-        try {
-            return allGoods.get(name);
-        } catch (NullPointerException e){
-            allGoods.put("name", 0.0);
-            return 0.0;
-        }
+        int good = GoodId.find(name);
+        return good < 0 ? 0.0 : getGood(good);
+    }
+
+    public double getGood(int good) {
+        return good < allGoods.length ? allGoods[good] : 0.0;
     }
 
     public double getCash() {
-        return getGood("cash");
+        return getGood(GoodId.CASH);
+    }
+
+    private void ensureGoodsCapacity(int good) {
+        if (good >= allGoods.length) {
+            int length = Math.max(good + 1, 2 * allGoods.length);
+            allGoods = Arrays.copyOf(allGoods, length);
+            goodsAccounts = Arrays.copyOf(goodsAccounts, length);
+            encumbered = Arrays.copyOf(encumbered, length);
+        }
+    }
+
+    public double getEncumbered(String name) {
+        int good = GoodId.find(name);
+        return good < 0 ? 0.0 : getEncumbered(good);
+    }
+
+    /**
+     * @return the quantity of a good pledged as collateral
+     */
+    public double getEncumbered(int good) {
+        return good < encumbered.length ? encumbered[good] : 0.0;
+    }
+
+    public double getUnencumbered(String name) {
+        int good = GoodId.find(name);
+        return good < 0 ? 0.0 : getUnencumbered(good);
+    }
+
+    /**
+     * @return the quantity of a good that is free to be sold, given away or pledged
+     */
+    public double getUnencumbered(int good) {
+        return getGood(good) - getEncumbered(good);
+    }
+
+    public double getEncumberedCash() {
+        return getEncumbered(GoodId.CASH);
+    }
+
+    public double getUnencumberedCash() {
+        return getUnencumbered(GoodId.CASH);
+    }
+
+    public void encumber(String name, double amount) throws NotEnoughGoods {
+        int good = GoodId.find(name);
+        if (good < 0) {
+            if (amount > 0.0) throw new NotEnoughGoods(name, 0.0, amount);
+            return;
+        }
+        encumber(good, amount);
+    }
+
+    /**
+     * Pledges a quantity of a good as collateral. Encumbered goods stay on the balance sheet, at their full value, but
+     * cannot be subtracted until they are released.
+     *
+     * @throws NotEnoughGoods if less than amount of the good is unencumbered
+     */
+    public void encumber(int good, double amount) throws NotEnoughGoods {
+        assert(amount >= 0.0);
+        double free = getUnencumbered(good);
+        if (amount > free) {
+            throw new NotEnoughGoods(GoodId.nameOf(good), free, amount);
+        }
+        ensureGoodsCapacity(good);
+        encumbered[good] += amount;
+    }
+
+    public void release(String name, double amount) {
+        // A good that was never registered cannot be encumbered, so there is nothing to release
+        int good = GoodId.find(name);
+        if (good < 0) {
+            if (amount > 0.0) {
+                throw new IllegalArgumentException("Cannot release " + amount + " of " + name + ", none encumbered");
+            }
+            return;
+        }
+        release(good, amount);
+    }
+
+    /**
+     * Releases a quantity of a good pledged as collateral.
+     *
+     * @throws IllegalArgumentException if less than amount of the good is encumbered
+     */
+    public void release(int good, double amount) {
+        assert(amount >= 0.0);
+        double pledged = getEncumbered(good);
+        if (amount > pledged) {
+            throw new IllegalArgumentException("Cannot release " + amount + " of " + GoodId.nameOf(good) +
+                    ", only " + pledged + " encumbered");
+        }
+        if (amount == 0.0) return;
+        encumbered[good] = pledged - amount;
+    }
+
+    /**
+     * Pledges several goods at once, e.g. the collateral of a repo: either all of them are encumbered or, if any is
+     * short, none.
+     *
+     * @throws NotEnoughGoods if any of the goods is short, in which case nothing is encumbered
+     */
+    public void encumber(int[] goods, double[] amounts) throws NotEnoughGoods {
+        for (int i = 0; i < goods.length; i++) {
+            try {
+                encumber(goods[i], amounts[i]);
+            } catch (NotEnoughGoods e) {
+                for (int j = 0; j < i; j++) {
+                    encumbered[goods[j]] -= amounts[j];
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Releases several goods at once: either all of them or, if more is released of any good than is encumbered,
+     * none.
+     */
+    public void release(int[] goods, double[] amounts) {
+        for (int i = 0; i < goods.length; i++) {
+            try {
+                release(goods[i], amounts[i]);
+            } catch (IllegalArgumentException e) {
+                for (int j = 0; j < i; j++) {
+                    encumbered[goods[j]] += amounts[j];
+                }
+                throw e;
+            }
+        }
     }
 
     protected void addAccount(Account account, Class<? extends Contract> contractType) {
@@ -172,15 +434,16 @@ public class Ledger implements LedgerAPI {
 
         if (assetAccount==null) {
             // If there doesn't exist an Account to hold this type of contract, we create it
-            assetAccount = new Account(contract.getClass().getName(), AccountType.ASSET);
+            assetAccount = new Account(contract.getClass().getName(), AccountType.ASSET, this);
             addAccount(assetAccount, contract.getClass());
         }
 
         // (dr asset, cr equity)
-        Account.doubleEntry(assetAccount, equityAccount, contract.getValue(me));
+        Account.doubleEntry(assetAccount, equityAccount, valueOf(contract));
 
         // Add to the general inventory?
         allAssets.add(contract);
+        assetIndex.add(contract);
     }
 
     /**
@@ -193,63 +456,106 @@ public class Ledger implements LedgerAPI {
 
         if (liabilityAccount==null) {
             // If there doesn't exist an Account to hold this type of contract, we create it
-            liabilityAccount = new Account(contract.getClass().getName(), AccountType.LIABILITY);
+            liabilityAccount = new Account(contract.getClass().getName(), AccountType.LIABILITY, this);
             addAccount(liabilityAccount, contract.getClass());
         }
 
         // (dr equity, cr liability)
-        Account.doubleEntry(equityAccount, liabilityAccount, contract.getValue(me));
+        Account.doubleEntry(equityAccount, liabilityAccount, valueOf(contract));
 
         // Add to the general inventory?
         allLiabilities.add(contract);
+        liabilityIndex.add(contract);
+    }
+
+    /**
+     * Removing an asset means debiting equity and crediting the account of its type with its current value.
+     * @return false if the contract is not an asset of this ledger
+     */
+    public boolean removeAsset(Contract contract) {
+        if (!allAssets.remove(contract)) return false;
+
+        // (dr equity, cr asset)
+        Account.doubleEntry(equityAccount, contractsToAssetAccounts.get(contract.getClass()), valueOf(contract));
+        assetIndex.remove(contract);
+        valuations.remove(contract);
+        return true;
+    }
+
+    /**
+     * Removing a liability means debiting the account of its type with its current value and crediting equity.
+     * @return false if the contract is not a liability of this ledger
+     */
+    public boolean removeLiability(Contract contract) {
+        if (!allLiabilities.remove(contract)) return false;
+
+        // (dr liability, cr equity)
+        Account.doubleEntry(contractsToLiabilityAccounts.get(contract.getClass()), equityAccount, valueOf(contract));
+        liabilityIndex.remove(contract);
+        valuations.remove(contract);
+        return true;
     }
 
     public void addGoods(String name, double amount, double value) {
+        addGoods(GoodId.of(name), amount, value);
+    }
+
+    public void addGoods(int good, double amount, double value) {
         assert(amount >= 0.0);
-        double have = allGoods.getOrDefault(name, 0.0);
-        allGoods.put(name, have + amount);
-        Account physicalthingsaccount = getGoodsAccount(name);
+        Account physicalthingsaccount = getGoodsAccount(good);
+        allGoods[good] += amount;
         Account.doubleEntry(physicalthingsaccount, equityAccount, amount * value);
     }
 
     public void subtractGoods(String name, double amount, double value) throws NotEnoughGoods {
+        subtractGoods(GoodId.of(name), amount, value);
+    }
+
+    public void subtractGoods(int good, double amount, double value) throws NotEnoughGoods {
         assert(amount >= 0.0);
-        double have = getGood(name);
-        if (amount > have) {
-            throw new NotEnoughGoods(name, have, amount);
+        double have = getGood(good);
+        if (amount > have - getEncumbered(good)) {
+            throw new NotEnoughGoods(GoodId.nameOf(good), have - getEncumbered(good), amount);
         }
-        allGoods.put(name, have - amount);
-        Account.doubleEntry(equityAccount, getGoodsAccount(name), amount * value);
+        Account physicalthingsaccount = getGoodsAccount(good);
+        allGoods[good] = have - amount;
+        Account.doubleEntry(equityAccount, physicalthingsaccount, amount * value);
     }
 
     public Account getGoodsAccount(String name) {
-        Account account = goodsAccounts.get(name);
+        return getGoodsAccount(GoodId.of(name));
+    }
+
+    public Account getGoodsAccount(int good) {
+        ensureGoodsCapacity(good);
+        Account account = goodsAccounts[good];
         if (account == null) {
-            account = new Account(name, GOOD);
-            goodsAccounts.put(name, account);
+            account = new Account(GoodId.nameOf(good), GOOD, this);
+            goodsAccounts[good] = account;
+            if (me != null) me.getSimulation().getHoldings().register(good, this);
         }
         return account;
     }
 
     public void subtractGoods(String name, double amount) throws NotEnoughGoods {
-        try {
-            double value = getPhysicalThingValue(name);
-            subtractGoods(name, amount, value);
-        } catch (NullPointerException e) {
-            throw new NotEnoughGoods(name, 0, amount);
-        }
+        subtractGoods(GoodId.of(name), amount);
+    }
+
+    public void subtractGoods(int good, double amount) throws NotEnoughGoods {
+        subtractGoods(good, amount, getPhysicalThingValue(good));
     }
 
     public double getPhysicalThingValue(String name) {
-        try {
-            return getGoodsAccount(name).getBalance() / getPhysicalThings(name);
-        } catch (NullPointerException e) {
-            return 0.0;
-        }
+        int good = GoodId.find(name);
+        return good < 0 ? 0.0 : getPhysicalThingValue(good);
     }
 
-    private Double getPhysicalThings(String name) {
-        return allGoods.get(name);
+    /**
+     * @return the book value of one unit of a good, or 0.0 if none of it is held
+     */
+    public double getPhysicalThingValue(int good) {
+        double quantity = getGood(good);
+        return quantity == 0.0 ? 0.0 : goodsAccounts[good].getBalance() / quantity;
     }
 
     /**
@@ -257,36 +563,53 @@ public class Ledger implements LedgerAPI {
      * the change to org.economicsl.accounting
      */
     public void revalueGoods(String name, double value) {
-        double old_value = getGoodsAccount(name).getBalance();
-        double new_value = allGoods.get(name) * value;
+        revalueGoods(GoodId.of(name), value);
+    }
+
+    public void revalueGoods(int good, double value) {
+        getGoodsAccount(good);
+        revalue(good, value);
+    }
+
+    /**
+     * revalueGoods for a good this ledger already has an account for.
+     */
+    void revalue(int good, double value) {
+        Account physicalthingsaccount = goodsAccounts[good];
+        double old_value = physicalthingsaccount.getBalance();
+        double new_value = allGoods[good] * value;
         if (new_value > old_value) {
-            Account.doubleEntry(getGoodsAccount(name), equityAccount, new_value - old_value);
+            Account.doubleEntry(physicalthingsaccount, equityAccount, new_value - old_value);
         } else if (new_value < old_value) {
-            Account.doubleEntry(equityAccount, getGoodsAccount(name), old_value - new_value);
+            Account.doubleEntry(equityAccount, physicalthingsaccount, old_value - new_value);
         }
     }
 
     public void addCash(double amount) {
         // (dr cash, cr equity)
-        addGoods("cash", amount, 1.0);
+        addGoods(GoodId.CASH, amount, 1.0);
     }
 
     public void substractCash(double amount) throws NotEnoughGoods {
-        subtractGoods("cash", amount, 1.0);
+        subtractGoods(GoodId.CASH, amount, 1.0);
     }
 
     /**
      * Operation to pay back a liability loan; debit liability and credit cash
      * @param amount amount to pay back
      * @param loan the loan which is being paid back
+     * @throws NotEnoughGoods if there is less unencumbered cash than amount, in which case nothing is paid
      */
-    public void payLiability(double amount, Contract loan) {
+    public void payLiability(double amount, Contract loan) throws NotEnoughGoods {
         Account liabilityAccount = contractsToLiabilityAccounts.get(loan.getClass());
 
-        assert(getCash() >= amount); // Pre-condition: liquidity has been raised.
+        // Pre-condition: liquidity has been raised
+        double free = getUnencumberedCash();
+        if (amount > free) throw new NotEnoughGoods(GoodId.nameOf(GoodId.CASH), free, amount);
 
         // (dr liability, cr cash )
-        Account.doubleEntry(liabilityAccount, getGoodsAccount("cash"), amount);
+        Account.doubleEntry(liabilityAccount, getCashAccount(), amount);
+        allGoods[GoodId.CASH] -= amount;
     }
 
     /**
@@ -297,7 +620,8 @@ public class Ledger implements LedgerAPI {
         Account assetAccount = contractsToAssetAccounts.get(assetType);
 
         // (dr cash, cr asset)
-        Account.doubleEntry(getGoodsAccount("cash"), assetAccount, amount);
+        Account.doubleEntry(getCashAccount(), assetAccount, amount);
+        allGoods[GoodId.CASH] += amount;
     }
 
     public void printBalanceSheet(Agent me) {
@@ -308,7 +632,7 @@ public class Ledger implements LedgerAPI {
 
         System.out.println("Breakdown: ");
         for (Contract contract : allAssets) {
-            System.out.println("\t"+contract.getName(me)+" > "+contract.getValue(me));
+            System.out.println("\t"+contract.getName(me)+" > "+valueOf(contract));
         }
         System.out.println("TOTAL ASSETS: "+ String.format( "%.2f", getAssetValue()));
 
@@ -317,18 +641,21 @@ public class Ledger implements LedgerAPI {
             System.out.println(account.getName()+" -> "+ String.format( "%.2f", account.getBalance()));
         }
         for (Contract contract : allLiabilities) {
-            System.out.println("\t"+contract.getName(me)+" > "+contract.getValue(me));
+            System.out.println("\t"+contract.getName(me)+" > "+valueOf(contract));
         }
         System.out.println("TOTAL LIABILITIES: "+ String.format( "%.2f", getLiabilityValue()));
         System.out.println("\nTOTAL EQUITY: "+String.format("%.2f", getEquityValue()));
 
         System.out.println("\nSummary of encumbered collateral:");
-        //for (Contract contract : getLiabilitiesOfType(Repo.class)) {
-        //    ((Repo) contract).printCollateral();
-        //}
-        System.out.println("\n\nTotal cash: "+ getGoodsAccount("cash").getBalance());
-        //System.out.println("Encumbered cash: "+me.getEncumberedCash());
-        //System.out.println("Unencumbered cash: " + (me.getCash_() - me.getEncumberedCash()));
+        for (int good = 0; good < encumbered.length; good++) {
+            if (encumbered[good] > 0.0 && good != GoodId.CASH) {
+                System.out.println(GoodId.nameOf(good) + ": total " + allGoods[good] +
+                        ", encumbered " + encumbered[good]);
+            }
+        }
+        System.out.println("\n\nTotal cash: "+ getCashAccount().getBalance());
+        System.out.println("Encumbered cash: "+getEncumberedCash());
+        System.out.println("Unencumbered cash: " + getUnencumberedCash());
     }
 
     public double getInitialEquity() {
@@ -344,7 +671,7 @@ public class Ledger implements LedgerAPI {
     }
 
     public Account getCashAccount() {
-        return getGoodsAccount("cash");
+        return getGoodsAccount(GoodId.CASH);
     }
 
     public HashMap<Class<? extends org.economicsl.Contract>, Account> getContractsToAssetAccounts() {
@@ -358,4 +685,38 @@ public class Ledger implements LedgerAPI {
     public Account getEquityAccount() {
         return equityAccount;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        int goods = 0;
+        for (Account account : goodsAccounts) {
+            if (account != null) goods++;
+        }
+        out.writeInt(goods);
+        for (int good = 0; good < goodsAccounts.length; good++) {
+            if (goodsAccounts[good] != null) {
+                out.writeUTF(GoodId.nameOf(good));
+                out.writeDouble(allGoods[good]);
+                out.writeDouble(encumbered[good]);
+                out.writeObject(goodsAccounts[good]);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        valuations = new ValuationCache();
+        valuation = this::valueOf;
+        allGoods = new double[GoodId.count()];
+        goodsAccounts = new Account[GoodId.count()];
+        encumbered = new double[GoodId.count()];
+        int goods = in.readInt();
+        for (int i = 0; i < goods; i++) {
+            int good = GoodId.of(in.readUTF());
+            ensureGoodsCapacity(good);
+            allGoods[good] = in.readDouble();
+            encumbered[good] = in.readDouble();
+            goodsAccounts[good] = (Account) in.readObject();
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package org.economicsl.accounting;
 
 import org.economicsl.Contract;
+import org.economicsl.NotEnoughGoods;
 
 /**
  * Interface for a Ledger (operations that must be provided at the very least by a Ledger implementation).
@@ -21,7 +22,7 @@ public interface LedgerAPI {
 
 
     void sellAsset(double amount, Class<? extends Contract> assetType);
-    void payLiability(double amount, Contract liability);
+    void payLiability(double amount, Contract liability) throws NotEnoughGoods;
 
 
 
@@ -0,0 +1,48 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Agent;
+import org.economicsl.Contract;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Values of contracts from the perspective of one agent, so that a Ledger values each of its contracts at most once
+ * per timestep, unless Simulation.invalidateValuations() or Contract.invalidateValue() is called in between.
+ */
+class ValuationCache {
+    private final IdentityHashMap<Contract, Entry> entries = new IdentityHashMap<>();
+
+    double valueOf(Contract contract, Agent me) {
+        int time = me.getSimulation().getTime();
+        int epoch = me.getSimulation().getValuationEpoch();
+        int version = contract.getValuationVersion();
+
+        Entry entry = entries.get(contract);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(contract, entry);
+        } else if (entry.time == time && entry.epoch == epoch && entry.version == version) {
+            return entry.value;
+        }
+        entry.value = contract.getValue(me);
+        entry.time = time;
+        entry.epoch = epoch;
+        entry.version = version;
+        return entry.value;
+    }
+
+    void remove(Contract contract) {
+        entries.remove(contract);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+        private double value;
+        private int time;
+        private int epoch;
+        private int version;
+    }
+}
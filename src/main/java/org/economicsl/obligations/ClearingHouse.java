@@ -0,0 +1,93 @@
+package org.economicsl.obligations;
+
+import org.economicsl.Agent;
+import org.economicsl.NotEnoughGoods;
+import org.economicsl.Simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settles the obligations that fall due at a timestep multilaterally: they are netted into one cash position per
+ * agent and only the net positions are paid. An agent that cannot pay its net position from its unencumbered cash,
+ * or is dead, is left out with all its due obligations, which stay unfulfilled.
+ *
+ * Netting pays each obligation in cash, so it should only be used for obligations whose fulfil() does exactly that.
+ */
+public class ClearingHouse {
+    private final ArrayList<Obligation> due = new ArrayList<>();
+    // Net cash position of every agent, by agent id: positive for net receivers
+    private double[] net = new double[0];
+    private boolean[] excluded = new boolean[0];
+
+    /**
+     * Nets and settles the obligations due at the current timestep of the simulation.
+     *
+     * @return the number of obligations settled
+     */
+    public int clear(Simulation simulation) {
+        List<Agent> agents = simulation.getAgents();
+        int n = agents.size();
+        if (net.length < n) {
+            net = new double[n];
+            excluded = new boolean[n];
+        }
+
+        due.clear();
+        for (int i = 0; i < n; i++) {
+            Agent agent = agents.get(i);
+            excluded[i] = !agent.isAlive();
+            for (Obligation obligation : agent.get_obligations_due()) {
+                if (!obligation.isFulfilled()) due.add(obligation);
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            Arrays.fill(net, 0, n, 0.0);
+            for (Obligation obligation : due) {
+                int from = obligation.getFrom().getId();
+                int to = obligation.getTo().getId();
+                if (!excluded[from] && !excluded[to]) {
+                    net[from] -= obligation.getAmount();
+                    net[to] += obligation.getAmount();
+                }
+            }
+
+            changed = false;
+            for (int i = 0; i < n; i++) {
+                if (!excluded[i] && net[i] < 0.0 && agents.get(i).getMainLedger().getUnencumberedCash() < -net[i]) {
+                    excluded[i] = true;
+                    changed = true;
+                }
+            }
+        }
+
+        // Collect from the net debtors before paying out to the net creditors
+        for (int i = 0; i < n; i++) {
+            if (!excluded[i] && net[i] < 0.0) {
+                try {
+                    agents.get(i).getMainLedger().substractCash(-net[i]);
+                } catch (NotEnoughGoods e) {
+                    throw new IllegalStateException("Net debtor cannot pay a position checked beforehand", e);
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (!excluded[i] && net[i] > 0.0) {
+                agents.get(i).getMainLedger().addCash(net[i]);
+            }
+        }
+
+        int settled = 0;
+        for (Obligation obligation : due) {
+            if (!excluded[obligation.getFrom().getId()] && !excluded[obligation.getTo().getId()]) {
+                obligation.setFulfilled();
+                settled++;
+            }
+        }
+        due.clear();
+        return settled;
+    }
+}
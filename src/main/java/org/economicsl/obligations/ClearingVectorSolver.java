@@ -0,0 +1,221 @@
+package org.economicsl.obligations;
+
+import org.economicsl.Agent;
+import org.economicsl.Simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Computes the clearing payment vector of a network of obligations, following Eisenberg and Noe (2001) with the
+ * default costs of Rogers and Veraart (2013): a defaulting agent pays alpha times its external assets plus beta times
+ * what it receives. alpha = beta = 1 gives the Eisenberg-Noe clearing vector.
+ *
+ * The solver iterates from full payment, which converges downwards to the greatest clearing vector.
+ */
+public class ClearingVectorSolver {
+    private static final int SLICE = 1024;
+
+    private final double alpha;
+    private final double beta;
+    private double tolerance = 1e-9;
+    private int maxIterations = 10000;
+
+    /**
+     * @param alpha fraction of external assets recovered in default
+     * @param beta fraction of interbank assets recovered in default
+     */
+    public ClearingVectorSolver(double alpha, double beta) {
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    /**
+     * An Eisenberg-Noe solver, without default costs.
+     */
+    public ClearingVectorSolver() {
+        this(1.0, 1.0);
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Solves for the network of the unfulfilled obligations due at the current timestep in the inboxes of all agents
+     * of a simulation.
+     *
+     * @param externalAssets the external assets of an agent, e.g. its cash
+     */
+    public ClearingVector solve(Simulation simulation, ToDoubleFunction<Agent> externalAssets) {
+        List<Agent> agents = simulation.getAgents();
+        int n = agents.size();
+        double[] external = new double[n];
+        ArrayList<Obligation> obligations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Agent agent = agents.get(i);
+            external[i] = externalAssets.applyAsDouble(agent);
+            for (Obligation obligation : agent.get_obligations_due()) {
+                if (!obligation.isFulfilled()) obligations.add(obligation);
+            }
+        }
+
+        int[] debtors = new int[obligations.size()];
+        int[] creditors = new int[obligations.size()];
+        double[] amounts = new double[obligations.size()];
+        for (int k = 0; k < obligations.size(); k++) {
+            Obligation obligation = obligations.get(k);
+            debtors[k] = obligation.getFrom().getId();
+            creditors[k] = obligation.getTo().getId();
+            amounts[k] = obligation.getAmount();
+        }
+        return solve(n, debtors, creditors, amounts, external);
+    }
+
+    /**
+     * Solves for a network given as a list of liabilities: debtors[k] owes amounts[k] to creditors[k].
+     *
+     * @param n the number of agents, which are numbered 0 to n - 1
+     * @param external the external assets of every agent
+     */
+    public ClearingVector solve(int n, int[] debtors, int[] creditors, double[] amounts, double[] external) {
+        // Compressed sparse rows of the liabilities, by creditor
+        int[] rowStart = new int[n + 1];
+        for (int creditor : creditors) {
+            rowStart[creditor + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            rowStart[i + 1] += rowStart[i];
+        }
+        int[] fill = rowStart.clone();
+        int[] debtor = new int[debtors.length];
+        double[] share = new double[debtors.length];
+        double[] owed = new double[n];
+        for (int k = 0; k < debtors.length; k++) {
+            int position = fill[creditors[k]]++;
+            debtor[position] = debtors[k];
+            share[position] = amounts[k];
+            owed[debtors[k]] += amounts[k];
+        }
+        for (int k = 0; k < share.length; k++) {
+            share[k] = owed[debtor[k]] > 0.0 ? share[k] / owed[debtor[k]] : 0.0;
+        }
+
+        double[] payments = owed.clone();
+        double[] next = new double[n];
+        boolean[] defaulted = new boolean[n];
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int iterations = 0;
+        double change;
+        do {
+            pool.invoke(new Sweep(rowStart, debtor, share, owed, external, payments, next, defaulted, 0, n));
+            change = 0.0;
+            for (int i = 0; i < n; i++) {
+                change = Math.max(change, Math.abs(next[i] - payments[i]));
+            }
+            double[] swap = payments;
+            payments = next;
+            next = swap;
+            iterations++;
+        } while (change > tolerance && iterations < maxIterations);
+
+        return new ClearingVector(payments, defaulted, iterations, change <= tolerance);
+    }
+
+    private class Sweep extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] rowStart;
+        private final int[] debtor;
+        private final double[] share;
+        private final double[] owed;
+        private final double[] external;
+        private final double[] payments;
+        private final double[] next;
+        private final boolean[] defaulted;
+        private final int from;
+        private final int to;
+
+        Sweep(int[] rowStart, int[] debtor, double[] share, double[] owed, double[] external, double[] payments,
+              double[] next, boolean[] defaulted, int from, int to) {
+            this.rowStart = rowStart;
+            this.debtor = debtor;
+            this.share = share;
+            this.owed = owed;
+            this.external = external;
+            this.payments = payments;
+            this.next = next;
+            this.defaulted = defaulted;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLICE) {
+                for (int i = from; i < to; i++) {
+                    double received = 0.0;
+                    for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                        received += share[k] * payments[debtor[k]];
+                    }
+                    if (external[i] + received >= owed[i]) {
+                        next[i] = owed[i];
+                        defaulted[i] = false;
+                    } else {
+                        next[i] = Math.max(0.0, Math.min(owed[i], alpha * external[i] + beta * received));
+                        defaulted[i] = true;
+                    }
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Sweep(rowStart, debtor, share, owed, external, payments, next, defaulted, from, middle),
+                        new Sweep(rowStart, debtor, share, owed, external, payments, next, defaulted, middle, to));
+            }
+        }
+    }
+
+    /**
+     * The outcome of a clearing: the payment of every agent, whether it defaults, the number of iterations the solver
+     * took and whether it converged within the maximum number of iterations.
+     */
+    public static class ClearingVector {
+        private final double[] payments;
+        private final boolean[] defaulted;
+        private final int iterations;
+        private final boolean converged;
+
+        ClearingVector(double[] payments, boolean[] defaulted, int iterations, boolean converged) {
+            this.payments = payments;
+            this.defaulted = defaulted;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+
+        public double[] getPayments() {
+            return payments;
+        }
+
+        public boolean[] getDefaulted() {
+            return defaulted;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * @return false if the solver stopped at the maximum number of iterations, in which case the payments are
+         * only an upper bound of the clearing vector
+         */
+        public boolean isConverged() {
+            return converged;
+        }
+    }
+}
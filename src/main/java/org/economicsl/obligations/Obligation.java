@@ -4,8 +4,12 @@ import org.economicsl.Agent;
 import org.economicsl.Contract;
 import org.economicsl.Simulation;
 
+import java.io.Serializable;
+
+
+public abstract class Obligation implements Serializable {
+    private static final long serialVersionUID = 1L;
 
-public abstract class Obligation {
     private final Simulation simulation;
     protected double amount;
     private boolean fulfilled = false;
@@ -15,6 +19,13 @@ public abstract class Obligation {
     private int timeToPay;
     private int timeToReceive;
 
+    // The mailboxes whose running totals have to be told about changes to this obligation. Restored by the
+    // mailboxes themselves, so that an obligation does not drag the mailbox of the other party into serialization.
+    transient ObligationsAndGoodsMailbox debtor_mailbox;
+    transient ObligationsAndGoodsMailbox creditor_mailbox;
+    // The timestep under which the debtor's mailbox files this obligation as due, never earlier than when it was opened
+    int due_time;
+
     public Obligation(Contract contract, double amount, int timeLeftToPay, Simulation simulation) {
         this.amount = amount;
 
@@ -39,14 +50,6 @@ public abstract class Obligation {
         return fulfilled;
     }
 
-    boolean hasArrived() {
-        return this.simulation.getTime() == timeToOpen;
-    }
-
-    boolean isDue() {
-        return this.simulation.getTime() == timeToPay;
-    }
-
     public Agent getFrom() {
         return from;
     }
@@ -56,13 +59,21 @@ public abstract class Obligation {
     }
 
     public void setFulfilled() {
+        if (fulfilled) return;
         this.fulfilled = true;
+        if (debtor_mailbox != null) debtor_mailbox.obligationFulfilled(this);
+        if (creditor_mailbox != null) creditor_mailbox.obligationFulfilled(this);
     }
 
     void setAmount(double amount) {
+        double change = amount - this.amount;
         this.amount = amount;
+        if (debtor_mailbox != null) debtor_mailbox.obligationAmended(this, change);
+        if (creditor_mailbox != null) creditor_mailbox.obligationAmended(this, change);
     }
 
+    public int getTimeToOpen() {return timeToOpen;}
+
     public int getTimeToPay() {return timeToPay;}
 
     public int getTimeToReceive() { return timeToReceive;}
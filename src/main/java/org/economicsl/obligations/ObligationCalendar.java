@@ -0,0 +1,93 @@
+package org.economicsl.obligations;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * Calendar queue of obligations keyed by timestep, so that a step only touches the obligations scheduled for it.
+ * Every slot also carries the total amount still to be paid on the obligations in it, which the owner keeps up to
+ * date. Emptied slots are kept for reuse.
+ */
+class ObligationCalendar implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final HashMap<Integer, Slot> slots;
+    private final ArrayList<Slot> spare_slots;
+
+    ObligationCalendar() {
+        slots = new HashMap<>();
+        spare_slots = new ArrayList<>();
+    }
+
+    void add(int time, Obligation obligation) {
+        Slot slot = slots.get(time);
+        if (slot == null) {
+            slot = spare_slots.isEmpty() ? new Slot() : spare_slots.remove(spare_slots.size() - 1);
+            slots.put(time, slot);
+        }
+        slot.obligations.add(obligation);
+    }
+
+    /**
+     * @return the obligations scheduled for a timestep, or null if there are none
+     */
+    ArrayList<Obligation> get(int time) {
+        Slot slot = slots.get(time);
+        return slot == null ? null : slot.obligations;
+    }
+
+    double getTotal(int time) {
+        Slot slot = slots.get(time);
+        return slot == null ? 0.0 : slot.total;
+    }
+
+    void addToTotal(int time, double amount) {
+        Slot slot = slots.get(time);
+        if (slot != null) slot.total += amount;
+    }
+
+    /**
+     * Removes the obligations scheduled for a timestep, handing each of them to an action first.
+     */
+    void drain(int time, Consumer<Obligation> action) {
+        Slot slot = slots.remove(time);
+        if (slot != null) {
+            slot.obligations.forEach(action);
+            slot.obligations.clear();
+            slot.total = 0.0;
+            spare_slots.add(slot);
+        }
+    }
+
+    void discard(int time) {
+        drain(time, obligation -> {});
+    }
+
+    void clear() {
+        for (Slot slot : slots.values()) {
+            slot.obligations.clear();
+            slot.total = 0.0;
+            spare_slots.add(slot);
+        }
+        slots.clear();
+    }
+
+    boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    void forEach(Consumer<Obligation> action) {
+        for (Slot slot : slots.values()) {
+            slot.obligations.forEach(action);
+        }
+    }
+
+    private static class Slot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<Obligation> obligations = new ArrayList<>();
+        private double total;
+    }
+}
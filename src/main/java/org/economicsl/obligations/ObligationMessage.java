@@ -2,8 +2,12 @@ package org.economicsl.obligations;
 
 import org.economicsl.Agent;
 
+import java.io.Serializable;
+
+
+public class ObligationMessage implements Serializable {
+    private static final long serialVersionUID = 1L;
 
-public class ObligationMessage {
     public boolean is_read;
     private final Object message;
     public final Agent sender;
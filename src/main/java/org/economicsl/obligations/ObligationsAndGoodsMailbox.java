@@ -3,74 +3,163 @@ package org.economicsl.obligations;
 
 
 import org.economicsl.GoodMessage;
+import org.economicsl.Simulation;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.stream.Collectors;
-
-public class ObligationsAndGoodsMailbox {
-    private HashSet<Obligation> obligation_unopened;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The receive methods are called from the sender's thread, so deliveries go into lock-free queues that are drained
+ * by the owner in step(). Everything else is only touched by the owner.
+ *
+ * Obligations are filed by the timestep at which they open and fall due, and the pending amounts are kept as running
+ * totals, so obligations should only be added to or removed from the inbox and outbox through this mailbox.
+ */
+public class ObligationsAndGoodsMailbox implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Simulation simulation;
+    private final ConcurrentLinkedQueue<Obligation> obligation_incoming;
+    private final ObligationCalendar obligation_unopened;
+    private final ObligationCalendar obligation_due;
+    private int obligation_due_from;
+    private transient Consumer<Obligation> opener = this::open;
+    // Obligations in the inbox that have been fulfilled, to be removed from it at the next step
+    private final ArrayList<Obligation> obligation_inbox_fulfilled = new ArrayList<>();
+    // Obligations in the outbox that have been fulfilled, offered from the thread of the debtor
+    private final ConcurrentLinkedQueue<Obligation> obligation_outbox_fulfilled = new ConcurrentLinkedQueue<>();
+    // The outbox is only searched for obligations of dead debtors when an agent has died since the last search
+    private int deaths_seen;
+    private transient Predicate<Obligation> outbox_remover = this::removeFromOutbox;
+
+    // Running totals of the unfulfilled obligations in the inbox, and of the fulfilled obligations in the outbox. The
+    // latter is updated from the thread of the debtor that fulfils the obligation.
+    private double pending_in_inbox;
+    private int pending_count;
+    private final DoubleAdder fulfilled_in_outbox = new DoubleAdder();
     private HashSet<Obligation> obligation_outbox;
     private HashSet<Obligation> obligation_inbox;
-    private HashSet<ObligationMessage> obligationMessage_inbox;
-    private HashSet<ObligationMessage> obligationMessage_unopened;
-    public HashSet<GoodMessage> goods_inbox;
-
-
-    public ObligationsAndGoodsMailbox() {
-        this.obligation_unopened = new HashSet<>();
+    private ArrayList<ObligationMessage> obligationMessage_inbox;
+    private ArrayList<ObligationMessage> obligationMessage_inbox_spare;
+    private final ConcurrentLinkedQueue<ObligationMessage> obligationMessage_unopened;
+    public final ConcurrentLinkedQueue<GoodMessage> goods_inbox;
+
+
+    public ObligationsAndGoodsMailbox(Simulation simulation) {
+        this.simulation = simulation;
+        this.obligation_incoming = new ConcurrentLinkedQueue<>();
+        this.obligation_unopened = new ObligationCalendar();
+        this.obligation_due = new ObligationCalendar();
+        this.obligation_due_from = simulation.getTime();
         this.obligation_outbox = new HashSet<>();
         this.obligation_inbox = new HashSet<>();
-        this.obligationMessage_unopened = new HashSet<>();
-        this.obligationMessage_inbox = new HashSet<>();
-        this.goods_inbox = new HashSet<>();
+        this.obligationMessage_unopened = new ConcurrentLinkedQueue<>();
+        this.obligationMessage_inbox = new ArrayList<>();
+        this.obligationMessage_inbox_spare = new ArrayList<>();
+        this.goods_inbox = new ConcurrentLinkedQueue<>();
+        this.deaths_seen = simulation.getDeaths();
     }
 
 
-    public void receiveObligation(Obligation obligation) {
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        opener = this::open;
+        outbox_remover = this::removeFromOutbox;
+        for (Obligation obligation : obligation_inbox) {
+            obligation.debtor_mailbox = this;
+        }
+        for (Obligation obligation : obligation_outbox) {
+            obligation.creditor_mailbox = this;
+        }
+    }
 
-        obligation_unopened.add(obligation);
+    public void receiveObligation(Obligation obligation) {
 
-        System.out.println("Obligation sent. "+obligation.getFrom().getName() +
-                " must pay "+obligation.getAmount()+" to "+obligation.getTo().getName()
-                +" on timestep "+obligation.getTimeToPay());
+        obligation_incoming.offer(obligation);
     }
 
     public void receiveMessage(ObligationMessage msg) {
-        obligationMessage_unopened.add(msg);
+        obligationMessage_unopened.offer(msg);
         //System.out.println("ObligationMessage sent. " + msg.getSender().getName() +
         //        " message: " + msg.getMessage());
     }
 
     public void receiveGoodMessage(GoodMessage good_message) {
-        System.out.println(good_message);
-        goods_inbox.add(good_message);
+        goods_inbox.offer(good_message);
         //System.out.println("ObligationMessage sent. " + msg.getSender().getName() +
         //        " message: " + msg.getMessage());
     }
 
 
     public void addToObligationOutbox(Obligation obligation) {
-        obligation_outbox.add(obligation);
+        if (obligation_outbox.add(obligation)) {
+            obligation.creditor_mailbox = this;
+            // Owed by an agent that is already dead, so search the outbox at the next step
+            if (!obligation.getFrom().isAlive()) deaths_seen = -1;
+            if (obligation.isFulfilled()) {
+                fulfilled_in_outbox.add(obligation.getAmount());
+                obligation_outbox_fulfilled.offer(obligation);
+            }
+        }
     }
 
     public double getMaturedObligations() {
-        return obligation_inbox.stream()
-                .filter(Obligation::isDue)
-                .filter(obligation -> ! (obligation.isFulfilled()))
-                .mapToDouble(Obligation::getAmount).sum();
+        return obligation_due.getTotal(simulation.getTime());
     }
 
     public double getAllPendingObligations() {
-        return obligation_inbox.stream()
-                .filter(obligation -> ! obligation.isFulfilled())
-                .mapToDouble(Obligation::getAmount).sum();
+        return pending_in_inbox;
     }
 
     public double getPendingPaymentsToMe() {
-        return obligation_outbox.stream()
-                .filter(Obligation::isFulfilled)
-                .mapToDouble(Obligation::getAmount)
-                .sum();
+        return fulfilled_in_outbox.sum();
+    }
+
+    /**
+     * Called by an obligation in the inbox or outbox of this mailbox when it gets fulfilled.
+     */
+    void obligationFulfilled(Obligation obligation) {
+        if (obligation.creditor_mailbox == this) {
+            fulfilled_in_outbox.add(obligation.getAmount());
+            obligation_outbox_fulfilled.offer(obligation);
+        }
+        if (obligation.debtor_mailbox == this) {
+            pending_in_inbox -= obligation.getAmount();
+            if (--pending_count == 0) pending_in_inbox = 0.0;
+            obligation_due.addToTotal(obligation.due_time, -obligation.getAmount());
+            obligation_inbox_fulfilled.add(obligation);
+        }
+    }
+
+    /**
+     * Called by an obligation in the inbox or outbox of this mailbox when its amount is changed.
+     */
+    void obligationAmended(Obligation obligation, double change) {
+        if (obligation.creditor_mailbox == this && obligation.isFulfilled()) {
+            fulfilled_in_outbox.add(change);
+        }
+        if (obligation.debtor_mailbox == this && ! obligation.isFulfilled()) {
+            pending_in_inbox += change;
+            obligation_due.addToTotal(obligation.due_time, change);
+        }
+    }
+
+    /**
+     * @return the obligations in the inbox that are due at the current timestep, fulfilled or not. The list must not
+     * be modified.
+     */
+    public List<Obligation> getObligationsDue() {
+        ArrayList<Obligation> due = obligation_due.get(simulation.getTime());
+        return due == null ? Collections.emptyList() : due;
     }
 
     public void fulfilAllRequests() {
@@ -80,8 +169,12 @@ public class ObligationsAndGoodsMailbox {
     }
 
     public void fulfilMaturedRequests() {
-        for (Obligation obligation : obligation_inbox) {
-            if (obligation.isDue() && ! obligation.isFulfilled()) {
+        ArrayList<Obligation> due = obligation_due.get(simulation.getTime());
+        if (due == null) return;
+
+        for (int i = 0; i < due.size(); i++) {
+            Obligation obligation = due.get(i);
+            if (! obligation.isFulfilled()) {
                 obligation.fulfil();
             }
         }
@@ -89,44 +182,115 @@ public class ObligationsAndGoodsMailbox {
 
     public void step() {
         // Remove all fulfilled requests
-        obligation_inbox.removeIf(Obligation::isFulfilled);
-        obligation_outbox.removeIf(Obligation::isFulfilled);
+        for (Obligation obligation : obligation_inbox_fulfilled) {
+            obligation_inbox.remove(obligation);
+            obligation.debtor_mailbox = null;
+        }
+        obligation_inbox_fulfilled.clear();
+        Obligation fulfilled;
+        while ((fulfilled = obligation_outbox_fulfilled.poll()) != null) {
+            if (obligation_outbox.remove(fulfilled)) removedFromOutbox(fulfilled);
+        }
+        if (deaths_seen != simulation.getDeaths()) {
+            deaths_seen = simulation.getDeaths();
+            obligation_outbox.removeIf(outbox_remover);
+        }
 
-        // Remove all requests from agents who have defaulted.
-        // TODO should be in model not in the library
-        obligation_outbox.removeIf(obligation -> (!(obligation.getFrom().isAlive())));
+        int time = simulation.getTime();
 
-        // Move all messages in the obligation_unopened to the obligation_inbox
-        obligation_inbox.addAll(
-                obligation_unopened.stream()
-                        .filter(Obligation::hasArrived)
-                        .collect(Collectors.toCollection(HashSet::new)));
+        // Take in everything delivered since the last step. An obligation whose opening time has already passed
+        // is opened right away rather than left unopened forever.
+        Obligation delivered;
+        while ((delivered = obligation_incoming.poll()) != null) {
+            obligation_unopened.add(Math.max(delivered.getTimeToOpen(), time), delivered);
+        }
 
-        obligation_unopened.removeIf(Obligation::hasArrived);
+        // Move all messages in the obligation_unopened that arrive now to the obligation_inbox
+        obligation_unopened.drain(time, opener);
 
+        // Forget the due dates that have passed
+        for (; obligation_due_from < time; obligation_due_from++) {
+            obligation_due.discard(obligation_due_from);
+        }
 
-        // Remove all fulfilled requests
-        obligationMessage_inbox.removeIf(ObligationMessage::is_read);
 
-        // Move all messages in the obligation_unopened to the obligation_inbox
-        obligationMessage_inbox.addAll(
-                obligationMessage_unopened.stream()  // what is this
-                        .collect(Collectors.toCollection(HashSet::new)));
+        // Remove all read messages and move all messages in the obligationMessage_unopened to the
+        // obligationMessage_inbox
+        ArrayList<ObligationMessage> messages = obligationMessage_inbox_spare;
+        for (ObligationMessage message : obligationMessage_inbox) {
+            if (!message.is_read) messages.add(message);
+        }
+        ObligationMessage message;
+        while ((message = obligationMessage_unopened.poll()) != null) {
+            messages.add(message);
+        }
+        obligationMessage_inbox.clear();
+        obligationMessage_inbox_spare = obligationMessage_inbox;
+        obligationMessage_inbox = messages;
+    }
 
-        obligationMessage_unopened = new HashSet<>();
+    private void open(Obligation obligation) {
+        if (! obligation_inbox.add(obligation)) return;
+
+        // An obligation that arrives after its payment date is due right away, as the past due dates are gone
+        obligation.debtor_mailbox = this;
+        obligation.due_time = Math.max(obligation.getTimeToPay(), simulation.getTime());
+        obligation_due.add(obligation.due_time, obligation);
+        if (obligation.isFulfilled()) {
+            obligation_inbox_fulfilled.add(obligation);
+        } else {
+            pending_in_inbox += obligation.getAmount();
+            pending_count++;
+            obligation_due.addToTotal(obligation.due_time, obligation.getAmount());
+        }
+    }
 
+    private boolean removeFromOutbox(Obligation obligation) {
+        // Remove all requests from agents who have defaulted.
+        // TODO should be in model not in the library
+        if (obligation.getFrom().isAlive()) return false;
+        removedFromOutbox(obligation);
+        return true;
+    }
 
-        // Remove all fulfilled requests
-        assert(goods_inbox.isEmpty());
+    private void removedFromOutbox(Obligation obligation) {
+        if (obligation.isFulfilled()) fulfilled_in_outbox.add(-obligation.getAmount());
+        obligation.creditor_mailbox = null;
+    }
 
-        // Move all messages in the obligation_unopened to the obligation_inbox
+    /**
+     * Empties the mailbox, keeping its buffers, so that its agent can be reused for a new run of the simulation.
+     */
+    public void clear() {
+        for (Obligation obligation : obligation_inbox) {
+            obligation.debtor_mailbox = null;
+        }
+        for (Obligation obligation : obligation_outbox) {
+            obligation.creditor_mailbox = null;
+        }
+        obligation_incoming.clear();
+        obligation_unopened.clear();
+        obligation_due.clear();
+        obligation_due_from = simulation.getTime();
+        obligation_inbox_fulfilled.clear();
+        obligation_outbox_fulfilled.clear();
+        deaths_seen = simulation.getDeaths();
+        obligation_inbox.clear();
+        obligation_outbox.clear();
+        pending_in_inbox = 0.0;
+        pending_count = 0;
+        fulfilled_in_outbox.reset();
+        obligationMessage_inbox.clear();
+        obligationMessage_unopened.clear();
+        goods_inbox.clear();
     }
 
     public void printMailbox() {
-        if (obligation_unopened.isEmpty() && obligation_inbox.isEmpty() && obligation_outbox.isEmpty()) System.out.println("\nObligationsAndGoodsMailbox is empty.");
+        if (obligation_incoming.isEmpty() && obligation_unopened.isEmpty() && obligation_inbox.isEmpty() && obligation_outbox.isEmpty()) System.out.println("\nObligationsAndGoodsMailbox is empty.");
         else {
             System.out.println("\nObligationsAndGoodsMailbox contents:");
-            if (!obligation_unopened.isEmpty()) System.out.println("Unopened messages:");
+            if (!obligation_incoming.isEmpty() || !obligation_unopened.isEmpty()) System.out.println("Unopened messages:");
+            obligation_incoming.forEach(Obligation::printObligation);
             obligation_unopened.forEach(Obligation::printObligation);
 
             if (!obligation_inbox.isEmpty()) System.out.println("Inbox:");
@@ -138,7 +302,7 @@ public class ObligationsAndGoodsMailbox {
         }
     }
 
-    public HashSet<ObligationMessage> getMessageInbox() {
+    public List<ObligationMessage> getMessageInbox() {
         return obligationMessage_inbox;
     }
     public HashSet<Obligation> getObligation_outbox() {
@@ -0,0 +1,85 @@
+package org.economicsl.reporting;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reads the files written by a ResultWriter.
+ *
+ * Usage: java org.economicsl.reporting.ResultFile results-file csv-file
+ */
+public class ResultFile {
+
+    /**
+     * Converts a result file to CSV, in the layout of the CSV outputs of the models: a header line
+     * "Simulation number, Timestep, column..." followed by one line per row.
+     */
+    public static void toCsv(Path results, Path csv) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(results)));
+             Writer out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            if (in.readInt() != ResultWriter.MAGIC) {
+                throw new IOException(results + " is not a result file");
+            }
+            int version = in.readInt();
+            if (version != ResultWriter.VERSION) {
+                throw new IOException("Unsupported result file version " + version);
+            }
+
+            int columnCount = in.readInt();
+            out.write("Simulation number, Timestep");
+            for (int i = 0; i < columnCount; i++) {
+                out.write(", ");
+                out.write(in.readUTF());
+            }
+            out.write('\n');
+
+            long[] simulationNumbers = new long[0];
+            int[] timesteps = new int[0];
+            double[][] columns = new double[columnCount][0];
+            while (true) {
+                int rows;
+                try {
+                    rows = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (rows > simulationNumbers.length) {
+                    simulationNumbers = new long[rows];
+                    timesteps = new int[rows];
+                    columns = new double[columnCount][rows];
+                }
+                for (int row = 0; row < rows; row++) simulationNumbers[row] = in.readLong();
+                for (int row = 0; row < rows; row++) timesteps[row] = in.readInt();
+                for (double[] column : columns) {
+                    for (int row = 0; row < rows; row++) column[row] = in.readDouble();
+                }
+
+                for (int row = 0; row < rows; row++) {
+                    out.write(Long.toString(simulationNumbers[row]));
+                    out.write(", ");
+                    out.write(Integer.toString(timesteps[row]));
+                    for (double[] column : columns) {
+                        out.write(", ");
+                        out.write(Double.toString(column[row]));
+                    }
+                    out.write('\n');
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ResultFile <results-file> <csv-file>");
+            System.exit(1);
+        }
+        toCsv(Paths.get(args[0]), Paths.get(args[1]));
+    }
+}
@@ -0,0 +1,264 @@
+package org.economicsl.reporting;
+
+import org.economicsl.Agent;
+import org.economicsl.Simulation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Records metrics of a population of agents once per timestep, and writes them to a binary file from a background
+ * thread. The file holds the same table as the CSV outputs of the models, one row per (simulation number, timestep)
+ * and one column per metric per agent, and can be turned into CSV with ResultFile.toCsv.
+ *
+ * The columns are fixed by the metrics added and the agents passed to the first call of record.
+ */
+public class ResultWriter implements AutoCloseable {
+    static final int MAGIC = 0x45534C52;
+    static final int VERSION = 1;
+    private static final int BLOCKS = 4;
+    private static final long POLL_MILLIS = 100;
+
+    private final ArrayList<String> metricNames = new ArrayList<>();
+    private final ArrayList<ToDoubleFunction<Agent>> metrics = new ArrayList<>();
+    private final ArrayList<String> totalNames = new ArrayList<>();
+    private final ArrayList<ToDoubleFunction<Simulation>> totals = new ArrayList<>();
+
+    private final FileChannel channel;
+    private final int rowsPerBlock;
+    private final ArrayBlockingQueue<Block> full = new ArrayBlockingQueue<>(BLOCKS + 1);
+    private final ArrayBlockingQueue<Block> free = new ArrayBlockingQueue<>(BLOCKS);
+    private final Thread writer;
+    private volatile Exception failure;
+    private Block current;
+    private int blockBytes;
+    private int columnCount;
+    // Written last by start, so that a caller that sees it set also sees the columns
+    private volatile int agentCount = -1;
+
+    /**
+     * @param rowsPerBlock number of rows collected before they are handed to the writer thread
+     */
+    public ResultWriter(Path file, int rowsPerBlock) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.rowsPerBlock = rowsPerBlock;
+        this.writer = new Thread(this::write, "result-writer");
+        writer.setDaemon(true);
+    }
+
+    public ResultWriter(Path file) throws IOException {
+        this(file, 1024);
+    }
+
+    /**
+     * Adds a metric that is recorded for every agent.
+     */
+    public synchronized void addMetric(String name, ToDoubleFunction<Agent> metric) {
+        checkNotStarted();
+        metricNames.add(name);
+        metrics.add(metric);
+    }
+
+    /**
+     * Adds a metric of the whole simulation, such as a total over all agents, recorded in a single column.
+     */
+    public synchronized void addTotal(String name, ToDoubleFunction<Simulation> total) {
+        checkNotStarted();
+        totalNames.add(name);
+        totals.add(total);
+    }
+
+    private void checkNotStarted() {
+        if (agentCount >= 0) {
+            throw new IllegalStateException("Metrics cannot be added once recording has started");
+        }
+    }
+
+    /**
+     * Records one row: every metric of every agent in agents, and every total of the simulation. The metrics are
+     * evaluated outside the lock, so that only the copy into the current block is serialized between callers.
+     */
+    public void record(long simulationNumber, Simulation simulation, List<? extends Agent> agents) {
+        checkFailure();
+        if (agentCount < 0) start(agents);
+        if (agents.size() != agentCount) {
+            throw new IllegalArgumentException("Expected " + agentCount + " agents, got " + agents.size());
+        }
+
+        int timestep = simulation.getTime();
+        double[] values = new double[columnCount];
+        int column = 0;
+        for (ToDoubleFunction<Agent> metric : metrics) {
+            for (int i = 0; i < agentCount; i++) {
+                values[column++] = metric.applyAsDouble(agents.get(i));
+            }
+        }
+        for (ToDoubleFunction<Simulation> total : totals) {
+            values[column++] = total.applyAsDouble(simulation);
+        }
+        append(simulationNumber, timestep, values);
+    }
+
+    private synchronized void append(long simulationNumber, int timestep, double[] values) {
+        Block block = current;
+        int row = block.rows;
+        block.simulationNumbers[row] = simulationNumber;
+        block.timesteps[row] = timestep;
+        for (int column = 0; column < values.length; column++) {
+            block.columns[column][row] = values[column];
+        }
+
+        block.rows++;
+        if (block.rows == rowsPerBlock) {
+            current = handOver(block);
+        }
+    }
+
+    /**
+     * Records one row for all agents of the simulation.
+     */
+    public void record(long simulationNumber, Simulation simulation) {
+        record(simulationNumber, simulation, simulation.getAgents());
+    }
+
+    private void checkFailure() {
+        Exception e = failure;
+        if (e instanceof IOException) throw new UncheckedIOException((IOException) e);
+        if (e != null) throw new IllegalStateException("The result writer failed", e);
+    }
+
+    private synchronized void start(List<? extends Agent> agents) {
+        if (agentCount >= 0) return;
+        ArrayList<String> columnNames = new ArrayList<>();
+        for (String metric : metricNames) {
+            for (Agent agent : agents) {
+                columnNames.add(agent.getName() + "_" + metric);
+            }
+        }
+        columnNames.addAll(totalNames);
+        long size = 4 + (long) rowsPerBlock * (12 + 8 * (long) columnNames.size());
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A block of " + rowsPerBlock + " rows and " + columnNames.size()
+                    + " columns takes " + size + " bytes; use fewer rows per block");
+        }
+        blockBytes = (int) size;
+        columnCount = columnNames.size();
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream header = new DataOutputStream(bytes);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(columnNames.size());
+            for (String name : columnNames) {
+                header.writeUTF(name);
+            }
+            header.flush();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (int i = 0; i < BLOCKS; i++) {
+            free.add(new Block(rowsPerBlock, columnNames.size()));
+        }
+        current = free.poll();
+        writer.start();
+        agentCount = agents.size();
+    }
+
+    private Block handOver(Block block) {
+        try {
+            full.put(block);
+            while (true) {
+                Block next = free.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (next != null) return next;
+                checkFailure();
+                if (!writer.isAlive()) throw new IllegalStateException("The result writer has stopped");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the result writer", e);
+        }
+    }
+
+    private void write() {
+        ByteBuffer buffer = null;
+        try {
+            while (true) {
+                Block block = full.take();
+                if (block == Block.END) break;
+
+                if (buffer == null) buffer = ByteBuffer.allocateDirect(blockBytes);
+                buffer.clear();
+                buffer.putInt(block.rows);
+                buffer.asLongBuffer().put(block.simulationNumbers, 0, block.rows);
+                buffer.position(buffer.position() + 8 * block.rows);
+                buffer.asIntBuffer().put(block.timesteps, 0, block.rows);
+                buffer.position(buffer.position() + 4 * block.rows);
+                for (double[] column : block.columns) {
+                    buffer.asDoubleBuffer().put(column, 0, block.rows);
+                    buffer.position(buffer.position() + 8 * block.rows);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) channel.write(buffer);
+
+                block.rows = 0;
+                free.put(block);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the rows still being collected, waits for the writer thread and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (agentCount >= 0) {
+                if (current.rows > 0) full.put(current);
+                full.put(Block.END);
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        if (failure instanceof IOException) throw (IOException) failure;
+        if (failure != null) throw new IOException("The result writer failed", failure);
+    }
+
+    private static class Block {
+        // Tells the writer thread to stop
+        static final Block END = new Block(0, 0);
+
+        private final long[] simulationNumbers;
+        private final int[] timesteps;
+        private final double[][] columns;
+        private int rows;
+
+        Block(int capacity, int columnCount) {
+            simulationNumbers = new long[capacity];
+            timesteps = new int[capacity];
+            columns = new double[columnCount][capacity];
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package end_to_end_test;
 
-import org.economicsl.Agent;
+import org.economicsl.Scheduler;
 import org.economicsl.Simulation;
 
 
@@ -12,11 +12,13 @@ public class End2EndTestGive {
     public static final int NUM_AGENTS = 15;
     public static final int ROUNDS = 16;
     private Simulation simulation;
+    private Scheduler scheduler;
     private GiveAgent[] giveandreceives;
 
 
     public void init() {
         simulation = new Simulation();
+        scheduler = new Scheduler(simulation);
         giveandreceives = new GiveAgent[NUM_AGENTS];
         for(int i = 0; i < NUM_AGENTS; i++) {
             giveandreceives[i] = new GiveAgent(Integer.toString(i), 1, 0, simulation);
@@ -39,10 +41,7 @@ public class End2EndTestGive {
                     giveandreceives[i].give(giveandreceives[i + 1]);
                 }
             }
-            for (Agent undergrad: giveandreceives) {
-                undergrad.step();
-            }
-            simulation.advance_time();
+            scheduler.step();
         }
     }
 
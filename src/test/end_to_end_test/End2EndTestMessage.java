@@ -1,6 +1,7 @@
 package end_to_end_test;
 
 
+import org.economicsl.Scheduler;
 import org.economicsl.Simulation;
 
 /**
@@ -11,10 +12,12 @@ public class End2EndTestMessage {
     public static final int ROUNDS = 16;
     private MessageAgent[] agent;
     private Simulation simulation;
+    private Scheduler scheduler;
 
     public void init() {
 
         simulation = new Simulation();
+        scheduler = new Scheduler(simulation);
         agent = new MessageAgent[NUM_AGENTS];
         agent[0] = new MessageAgent(Integer.toString(0), null, 0 % 2, simulation);
         for(int i = 1; i < NUM_AGENTS; i++) {
@@ -33,10 +36,7 @@ public class End2EndTestMessage {
             for (MessageAgent child: agent) {
                 child.hear();
             }
-            for (MessageAgent child: agent) {
-                child.step();
-            }
-            simulation.advance_time();
+            scheduler.step();
         }
     }
 
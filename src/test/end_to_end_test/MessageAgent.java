@@ -4,7 +4,7 @@ import org.economicsl.Agent;
 import org.economicsl.Message;
 import org.economicsl.Simulation;
 
-import java.util.HashSet;
+import java.util.List;
 
 /**
  * Created by taghawi on 04/04/17.
@@ -26,7 +26,7 @@ public class MessageAgent extends Agent {
     }
 
     public void hear() {
-        HashSet<Message> messages = get_messages();
+        List<Message> messages = get_messages();
         for (Message message: messages) {
             System.out.print(message.getMessage());
         }
@@ -0,0 +1,20 @@
+package org.economicsl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AgentTest {
+
+    @Test
+    public void aResetAgentDrawsTheSameNumbersAgain() {
+        Simulation simulation = new Simulation(3L);
+        Agent agent = new Agent("agent", simulation);
+        double first = agent.random().nextDouble();
+        double second = agent.random().nextDouble();
+
+        simulation.reset();
+        assertEquals(first, agent.random().nextDouble(), 0.0);
+        assertEquals(second, agent.random().nextDouble(), 0.0);
+    }
+}
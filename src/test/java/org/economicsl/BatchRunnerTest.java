@@ -0,0 +1,63 @@
+package org.economicsl;
+
+import org.economicsl.reporting.ResultFile;
+import org.economicsl.reporting.ResultWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchRunnerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final ScenarioFactory FACTORY = new ScenarioFactory() {
+        @Override
+        public void setUp(Simulation simulation, long seed) {
+            if (simulation.getAgents().isEmpty()) {
+                new Agent("Bank 1", simulation);
+                new Agent("Bank 2", simulation);
+            }
+        }
+
+        @Override
+        public void step(Simulation simulation) {
+            for (Agent agent : simulation.getAgents()) {
+                agent.addCash(agent.random().nextDouble());
+            }
+            simulation.advance_time();
+        }
+    };
+
+    private List<String> run(int parallelism, String name) throws Exception {
+        Path results = folder.getRoot().toPath().resolve(name + ".bin");
+        Path csv = folder.getRoot().toPath().resolve(name + ".csv");
+        BatchRunner runner = new BatchRunner(parallelism);
+        try (ResultWriter writer = new ResultWriter(results, 16)) {
+            writer.addMetric("cash", Agent::getCash_);
+            runner.run(FACTORY, 3_000_000_000L, 3_000_000_032L, 10, writer);
+        } finally {
+            runner.shutdown();
+        }
+        ResultFile.toCsv(results, csv);
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        Collections.sort(lines);
+        return lines;
+    }
+
+    @Test
+    public void resultsDoNotDependOnTheNumberOfThreads() throws Exception {
+        List<String> sequential = run(1, "sequential");
+        List<String> parallel = run(4, "parallel");
+        assertEquals(32 * 11 + 1, sequential.size());
+        assertEquals(sequential, parallel);
+        assertEquals("3000000000, 0, 0.0, 0.0", sequential.get(0));
+    }
+}
@@ -0,0 +1,67 @@
+package org.economicsl;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Every agent sends to many others while the rest of the population is being processed on other threads. Not a single
+ * message, obligation message or good may get lost.
+ */
+public class ConcurrentDeliveryTest {
+    private static final int AGENTS = 500;
+    private static final int MESSAGES = 50;
+    private static final int ROUNDS = 5;
+
+    private static class Sender extends Agent {
+        private long received = 0;
+
+        Sender(String name, Simulation simulation) {
+            super(name, simulation);
+        }
+
+        void sendBurst(List<Agent> population) {
+            for (int i = 1; i <= MESSAGES; i++) {
+                Agent friend = population.get((getId() + i) % population.size());
+                message(friend, "hello", i);
+                sendObligation(friend, (Object) i);
+                friend.receiveGoodMessage(new GoodMessage("gold", 1.0, 1.0));
+            }
+        }
+
+        void count() {
+            received += get_messages().size();
+            received += obligationsAndGoodsMailbox.getMessageInbox().size();
+            obligationsAndGoodsMailbox.getMessageInbox().clear();
+        }
+    }
+
+    @Test
+    public void nothingSentFromParallelPhasesIsLost() {
+        Simulation simulation = new Simulation();
+        for (int i = 0; i < AGENTS; i++) {
+            new Sender(Integer.toString(i), simulation);
+        }
+        Scheduler scheduler = new Scheduler(simulation, 4);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                scheduler.forEachAgent(agent -> ((Sender) agent).sendBurst(simulation.getAgents()));
+                scheduler.step();
+                scheduler.forEachAgent(agent -> ((Sender) agent).count());
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+
+        long received = 0;
+        double gold = 0.0;
+        for (Agent agent : simulation.getAgents()) {
+            received += ((Sender) agent).received;
+            gold += agent.getMainLedger().getGood("gold");
+        }
+        assertEquals(2L * AGENTS * MESSAGES * ROUNDS, received);
+        assertEquals((double) AGENTS * MESSAGES * ROUNDS, gold, 0.0);
+    }
+}
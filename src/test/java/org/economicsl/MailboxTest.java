@@ -0,0 +1,57 @@
+package org.economicsl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MailboxTest {
+
+    private static Mailbox deliver(Agent sender, String... topics) {
+        Mailbox mailbox = new Mailbox();
+        for (int i = 0; i < topics.length; i++) {
+            mailbox.receiveMessage(new Message(sender, topics[i], i));
+        }
+        mailbox.step();
+        return mailbox;
+    }
+
+    @Test
+    public void returnedListsBelongToTheCaller() {
+        Agent sender = new Agent("sender", new Simulation());
+        Mailbox mailbox = deliver(sender, "price", "order", "price");
+
+        List<Message> prices = mailbox.get_massages(new String("price"));
+        assertEquals(2, prices.size());
+        mailbox.receiveMessage(new Message(sender, "price", 3));
+        mailbox.step();
+        List<Message> later = mailbox.get_massages("price");
+        assertEquals(2, prices.size());
+        assertEquals(1, later.size());
+        prices.clear();
+
+        List<Message> all = mailbox.get_massages();
+        assertEquals(1, all.size());
+        assertTrue(mailbox.get_massages().isEmpty());
+        assertEquals(1, all.size());
+    }
+
+    @Test
+    public void drainingEmptiesTheInbox() {
+        Agent sender = new Agent("sender", new Simulation());
+        Mailbox mailbox = deliver(sender, "price", "order", "price");
+
+        ArrayList<Object> prices = new ArrayList<>();
+        mailbox.drain_messages("price", message -> prices.add(message.getMessage()));
+        assertEquals(2, prices.size());
+
+        ArrayList<Message> rest = new ArrayList<>();
+        mailbox.drain_messages(rest::add);
+        assertEquals(1, rest.size());
+        assertEquals("order", rest.get(0).getTopic());
+        assertTrue(mailbox.get_massages().isEmpty());
+    }
+}
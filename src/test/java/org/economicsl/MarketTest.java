@@ -0,0 +1,115 @@
+package org.economicsl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MarketTest {
+
+    @Test
+    public void ordersMoveThePriceByTheNetAmountSold() {
+        Simulation simulation = new Simulation();
+        Agent seller = new Agent("seller", simulation);
+        Agent buyer = new Agent("buyer", simulation);
+        seller.getMainLedger().addGoods("MBS", 100.0, 1.0);
+        buyer.addCash(100.0);
+        Market market = new Market(simulation);
+        market.addGood("MBS", 1.0, PriceImpact.exponential(0.01));
+
+        market.sell(seller, "MBS", 30.0);
+        market.buy(buyer, "MBS", 10.0);
+        market.clear();
+
+        double price = Math.exp(-0.01 * 20.0);
+        assertEquals(price, market.getPrice("MBS"), 1e-12);
+        assertEquals(30.0, market.getTotalAmountSold("MBS"), 0.0);
+        assertEquals(70.0, seller.getMainLedger().getGood("MBS"), 1e-12);
+        assertEquals(30.0 * price, seller.getCash_(), 1e-12);
+        assertEquals(10.0, buyer.getMainLedger().getGood("MBS"), 1e-12);
+        assertEquals(100.0 - 10.0 * price, buyer.getCash_(), 1e-12);
+        assertEquals(price, seller.getMainLedger().getPhysicalThingValue("MBS"), 1e-12);
+    }
+
+    @Test
+    public void ordersOfOneAgentAreCappedJointly() {
+        Simulation simulation = new Simulation();
+        Agent seller = new Agent("seller", simulation);
+        Agent buyer = new Agent("buyer", simulation);
+        seller.getMainLedger().addGoods("MBS", 50.0, 1.0);
+        buyer.addCash(20.0);
+        Market market = new Market(simulation);
+        market.addGood("MBS", 1.0, PriceImpact.linear(0.0));
+
+        market.sell(seller, "MBS", 40.0);
+        market.sell(seller, "MBS", 40.0);
+        market.buy(buyer, "MBS", 15.0);
+        market.buy(buyer, "MBS", 15.0);
+        market.clear();
+
+        assertEquals(50.0, market.getTotalAmountSold("MBS"), 0.0);
+        assertEquals(0.0, seller.getMainLedger().getGood("MBS"), 1e-12);
+        assertEquals(50.0, seller.getCash_(), 1e-12);
+        assertEquals(20.0, buyer.getMainLedger().getGood("MBS"), 1e-12);
+        assertEquals(0.0, buyer.getCash_(), 1e-12);
+    }
+
+    @Test
+    public void encumberedGoodsAreNotSold() throws NotEnoughGoods {
+        Simulation simulation = new Simulation();
+        Agent seller = new Agent("seller", simulation);
+        seller.getMainLedger().addGoods("MBS", 50.0, 1.0);
+        seller.getMainLedger().encumber("MBS", 30.0);
+        Market market = new Market(simulation);
+        market.addGood("MBS", 1.0, PriceImpact.linear(0.0));
+
+        market.sell(seller, "MBS", 50.0);
+        market.clear();
+
+        assertEquals(30.0, seller.getMainLedger().getGood("MBS"), 1e-12);
+        assertEquals(20.0, seller.getCash_(), 1e-12);
+    }
+
+    @Test
+    public void buyersWhoCannotPayDoNotMoveThePrice() {
+        Simulation simulation = new Simulation();
+        Agent seller = new Agent("seller", simulation);
+        Agent broke = new Agent("broke", simulation);
+        Agent buyer = new Agent("buyer", simulation);
+        seller.getMainLedger().addGoods("MBS", 10.0, 1.0);
+        buyer.addCash(100.0);
+        Market market = new Market(simulation);
+        market.addGood("MBS", 1.0, PriceImpact.linear(0.01));
+
+        market.sell(seller, "MBS", 10.0);
+        market.buy(broke, "MBS", 100.0);
+        market.buy(buyer, "MBS", 5.0);
+        market.clear();
+
+        assertEquals(0.95, market.getPrice("MBS"), 1e-9);
+        assertEquals(0.0, broke.getMainLedger().getGood("MBS"), 0.0);
+        assertEquals(5.0, buyer.getMainLedger().getGood("MBS"), 1e-9);
+    }
+
+    @Test
+    public void thePriceReflectsWhatCappedBuyersCanAfford() {
+        Simulation simulation = new Simulation();
+        Agent seller = new Agent("seller", simulation);
+        Agent buyer = new Agent("buyer", simulation);
+        seller.getMainLedger().addGoods("MBS", 20.0, 1.0);
+        buyer.addCash(3.0);
+        Market market = new Market(simulation);
+        market.addGood("MBS", 1.0, PriceImpact.exponential(0.05));
+
+        market.sell(seller, "MBS", 20.0);
+        market.buy(buyer, "MBS", 10.0);
+        market.clear();
+
+        double price = market.getPrice("MBS");
+        double bought = buyer.getMainLedger().getGood("MBS");
+        assertEquals(Math.exp(-0.05 * (20.0 - bought)), price, 1e-9);
+        assertEquals(3.0 / price, bought, 1e-6);
+        assertEquals(0.0, buyer.getCash_(), 1e-6);
+        assertTrue(buyer.getCash_() >= 0.0);
+    }
+}
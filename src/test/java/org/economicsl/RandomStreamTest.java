@@ -0,0 +1,120 @@
+package org.economicsl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RandomStreamTest {
+    private static final int DRAWS = 10000;
+
+    private static long[] longs(RandomStream random, int n) {
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) values[i] = random.nextLong();
+        return values;
+    }
+
+    private static double[] doubles(RandomStream random) {
+        double[] values = new double[DRAWS];
+        for (int i = 0; i < DRAWS; i++) values[i] = random.nextDouble();
+        return values;
+    }
+
+    private static double correlation(double[] x, double[] y) {
+        double mx = 0.0, my = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            mx += x[i];
+            my += y[i];
+        }
+        mx /= x.length;
+        my /= y.length;
+        double sxy = 0.0, sxx = 0.0, syy = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            sxy += (x[i] - mx) * (y[i] - my);
+            sxx += (x[i] - mx) * (x[i] - mx);
+            syy += (y[i] - my) * (y[i] - my);
+        }
+        return sxy / Math.sqrt(sxx * syy);
+    }
+
+    @Test
+    public void theSameKeyGivesTheSameDraws() {
+        assertArrayEquals(longs(new RandomStream(42L, 7, 3), 1000), longs(new RandomStream(42L, 7, 3), 1000));
+
+        RandomStream random = new RandomStream(42L, 7, 3);
+        long[] first = longs(random, 10);
+        random.at(42L, 8, 3);
+        assertArrayEquals(first, longs(random.at(42L, 7, 3), 10));
+    }
+
+    @Test
+    public void movingToTheSameKeyDoesNotRestart() {
+        RandomStream random = new RandomStream(42L, 7, 3);
+        long[] draws = longs(new RandomStream(42L, 7, 3), 2);
+        assertEquals(draws[0], random.nextLong());
+        assertEquals(draws[1], random.at(42L, 7, 3).nextLong());
+    }
+
+    @Test
+    public void differentKeysGiveIndependentDraws() {
+        double[] base = doubles(new RandomStream(42L, 0, 0));
+        RandomStream[] others = {
+                new RandomStream(42L, 1, 0), new RandomStream(42L, 0, 1), new RandomStream(43L, 0, 0),
+                new RandomStream(42L, 1, 1)
+        };
+        for (RandomStream other : others) {
+            double[] draws = doubles(other);
+            assertNotEquals(base[0], draws[0], 0.0);
+            // With 10000 draws the correlation of independent streams has a standard deviation of 0.01
+            assertTrue(Math.abs(correlation(base, draws)) < 0.05);
+        }
+        // Neighbouring streams must not just be shifted copies of each other
+        double[] next = doubles(new RandomStream(42L, 1, 0));
+        double[] shifted = new double[DRAWS];
+        System.arraycopy(base, 1, shifted, 0, DRAWS - 1);
+        shifted[DRAWS - 1] = base[0];
+        assertTrue(Math.abs(correlation(shifted, next)) < 0.05);
+    }
+
+    @Test
+    public void drawsAreInRange() {
+        RandomStream random = new RandomStream(1L, 2, 3);
+        double sum = 0.0;
+        for (int i = 0; i < DRAWS; i++) {
+            double value = random.nextDouble();
+            assertTrue(value >= 0.0 && value < 1.0);
+            sum += value;
+        }
+        assertEquals(0.5, sum / DRAWS, 0.02);
+
+        int[] counts = new int[10];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[random.nextInt(10)]++;
+        }
+        for (int count : counts) {
+            assertEquals(DRAWS / 10, count, DRAWS / 20);
+        }
+        for (int bound : new int[] {1, 2, 3, 1000003, Integer.MAX_VALUE}) {
+            for (int i = 0; i < 1000; i++) {
+                int value = random.nextInt(bound);
+                assertTrue(value >= 0 && value < bound);
+            }
+        }
+
+        double mean = 0.0, square = 0.0;
+        for (int i = 0; i < DRAWS; i++) {
+            double value = random.nextGaussian();
+            mean += value;
+            square += value * value;
+        }
+        assertEquals(0.0, mean / DRAWS, 0.05);
+        assertEquals(1.0, square / DRAWS, 0.05);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aBoundMustBePositive() {
+        new RandomStream(1L, 2, 3).nextInt(0);
+    }
+}
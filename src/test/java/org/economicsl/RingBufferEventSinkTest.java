@@ -0,0 +1,127 @@
+package org.economicsl;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RingBufferEventSinkTest {
+
+    private static Action action(Agent agent, String name, double amount) {
+        Action action = new Action(agent) {
+            @Override
+            public double getMax() {
+                return amount;
+            }
+
+            @Override
+            public String getName() {
+                if (name == null) throw new IllegalStateException("No name");
+                return name;
+            }
+
+            @Override
+            public void print() {
+            }
+        };
+        action.setAmount(amount);
+        return action;
+    }
+
+    @Test
+    public void eventsArePrintedInOrderByClose() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Simulation simulation = new Simulation();
+        Agent agent = new Agent("bank", simulation);
+        RingBufferEventSink sink = new RingBufferEventSink(new PrintStream(bytes), 1024);
+        for (int i = 0; i < 100; i++) {
+            sink.actionPerformed(action(agent, "sell", i));
+        }
+        sink.goodsReceived(agent, new GoodMessage("MBS", 2.0, 3.0));
+        sink.close();
+
+        String[] lines = bytes.toString().split("\n");
+        assertEquals(101, lines.length);
+        assertEquals("0: Action performed. bank -> sell amount 0.0", lines[0]);
+        assertEquals("0: Action performed. bank -> sell amount 99.0", lines[99]);
+        assertEquals("0: Goods received. bank receives 2.0 MBS at value 3.0", lines[100]);
+        assertEquals(0, sink.getDropped());
+    }
+
+    @Test
+    public void aFailingEventDoesNotBlockTheOnesAfterIt() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Agent agent = new Agent("bank", new Simulation());
+        RingBufferEventSink sink = new RingBufferEventSink(new PrintStream(bytes), 16);
+        try {
+            sink.actionPerformed(action(agent, null, 1.0));
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        sink.actionPerformed(action(agent, "buy", 2.0));
+        sink.close();
+
+        assertArrayEquals(new String[] {"0: Action performed. bank -> buy amount 2.0"}, bytes.toString().split("\n"));
+    }
+
+    @Test
+    public void closeRestoresTheInterruptFlag() {
+        RingBufferEventSink sink = new RingBufferEventSink(new PrintStream(new ByteArrayOutputStream()), 16);
+        Thread.currentThread().interrupt();
+        sink.close();
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    public void everyEventIsPrintedOnceOrCountedAsDropped() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Agent agent = new Agent("bank", new Simulation());
+        RingBufferEventSink sink = new RingBufferEventSink(new PrintStream(bytes), 8);
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            String name = "producer" + t;
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    sink.actionPerformed(action(agent, name, i));
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        sink.close();
+
+        String[] lines = bytes.toString().split("\n");
+        Set<String> seen = new HashSet<>();
+        for (String line : lines) {
+            assertTrue(line, line.matches("0: Action performed\\. bank -> producer[0-3] amount \\d+\\.0"));
+            assertTrue(line, seen.add(line));
+        }
+        assertEquals(4 * 20000, lines.length + sink.getDropped());
+    }
+
+    @Test
+    public void anIdleWriterWakesUpForTheNextEvent() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Agent agent = new Agent("bank", new Simulation());
+        RingBufferEventSink sink = new RingBufferEventSink(new PrintStream(bytes), 16);
+        Thread.sleep(50);
+        sink.actionPerformed(action(agent, "buy", 1.0));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bytes.size() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertFalse(bytes.toString().isEmpty());
+        sink.close();
+        assertEquals("0: Action performed. bank -> buy amount 1.0\n", bytes.toString());
+    }
+}
@@ -0,0 +1,70 @@
+package org.economicsl;
+
+import org.economicsl.accounting.Ledger;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SchedulerTest {
+    private static final int AGENTS = 1000;
+    private static final int ROUNDS = 20;
+
+    /**
+     * Gives a random part of its gold to a random other agent, using only its own random stream.
+     */
+    private static class Trader extends Trade {
+        Trader(String name, Simulation simulation) {
+            super(name, simulation);
+            getMainLedger().addGoods("gold", 100, 1.0);
+        }
+
+        void trade(List<Agent> population) {
+            int other = (getId() + 1 + random().nextInt(population.size() - 1)) % population.size();
+            int amount = random().nextInt((int) getMainLedger().getGood("gold") + 1);
+            try {
+                give(population.get(other), "gold", amount);
+            } catch (NotEnoughGoods e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static Simulation run(int parallelism) {
+        Simulation simulation = new Simulation(42L);
+        for (int i = 0; i < AGENTS; i++) {
+            new Trader(Integer.toString(i), simulation);
+        }
+        Scheduler scheduler = new Scheduler(simulation, parallelism);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                scheduler.forEachAgent(agent -> ((Trader) agent).trade(simulation.getAgents()));
+                scheduler.step();
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+        return simulation;
+    }
+
+    @Test
+    public void aSeededSimulationEndsTheSameOnOneThreadAndOnMany() {
+        List<Agent> sequential = run(1).getAgents();
+        List<Agent> parallel = run(4).getAgents();
+
+        double total = 0.0;
+        int changed = 0;
+        for (int i = 0; i < AGENTS; i++) {
+            Ledger expected = sequential.get(i).getMainLedger();
+            Ledger actual = parallel.get(i).getMainLedger();
+            assertEquals(expected.getGood("gold"), actual.getGood("gold"), 0.0);
+            assertEquals(expected.getAssetValue(), actual.getAssetValue(), 1e-9);
+            total += actual.getGood("gold");
+            if (actual.getGood("gold") != 100.0) changed++;
+        }
+        assertEquals(100.0 * AGENTS, total, 0.0);
+        assertTrue(changed > AGENTS / 2);
+    }
+}
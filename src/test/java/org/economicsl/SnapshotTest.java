@@ -0,0 +1,103 @@
+package org.economicsl;
+
+import org.economicsl.accounting.Ledger;
+import org.economicsl.obligations.Obligation;
+import org.economicsl.obligations.TestPayment;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotTest {
+
+    @Test
+    public void restoredCopiesAreIndependentOfTheOriginal() throws NotEnoughGoods {
+        Simulation simulation = new Simulation(42L);
+        Agent bank = new Agent("bank", simulation);
+        Agent borrower = new Agent("borrower", simulation);
+        bank.addCash(100.0);
+        bank.getMainLedger().addGoods("MBS", 10.0, 2.0);
+        bank.getMainLedger().encumber("MBS", 4.0);
+        bank.add(new TestLoan(bank, borrower, 30.0));
+        simulation.advance_time();
+
+        Snapshot snapshot = Snapshot.fromByteArray(simulation.snapshot().toByteArray());
+        bank.addCash(50.0);
+        simulation.advance_time();
+
+        Simulation first = snapshot.restore();
+        Simulation second = snapshot.restore();
+        assertNotSame(first.getAgents().get(0), second.getAgents().get(0));
+        first.getAgents().get(0).addCash(1.0);
+
+        assertEquals(1, second.getTime());
+        assertEquals(42L, second.getSeed());
+        assertEquals(2, second.getAgents().size());
+        Ledger ledger = second.getAgents().get(0).getMainLedger();
+        assertEquals(100.0, ledger.getCash(), 0.0);
+        assertEquals(10.0, ledger.getGood("MBS"), 0.0);
+        assertEquals(4.0, ledger.getEncumbered("MBS"), 0.0);
+        assertEquals(30.0, ledger.getAssetValueOf(TestLoan.class), 0.0);
+        assertEquals(150.0, ledger.getEquityValue(), 1e-12);
+        assertEquals(101.0, first.getAgents().get(0).getCash_(), 0.0);
+        assertEquals(150.0, bank.getCash_(), 0.0);
+    }
+
+    @Test
+    public void restoredCopiesDrawTheSameRandomNumbers() {
+        Simulation simulation = new Simulation(7L);
+        Agent agent = new Agent("agent", simulation);
+        simulation.advance_time();
+        Snapshot snapshot = simulation.snapshot();
+
+        double expected = agent.random().nextDouble();
+        assertEquals(expected, snapshot.restore().getAgents().get(0).random().nextDouble(), 0.0);
+    }
+
+    @Test
+    public void aLongChainOfCounterpartiesIsRestored() throws NotEnoughGoods {
+        Simulation simulation = new Simulation();
+        int n = 10000;
+        for (int i = 0; i < n; i++) {
+            new Agent("bank " + i, simulation).addCash(10.0);
+        }
+        List<Agent> banks = simulation.getAgents();
+        for (int i = 0; i + 1 < n; i++) {
+            TestLoan loan = new TestLoan(banks.get(i), banks.get(i + 1), 5.0);
+            banks.get(i).add(loan);
+            banks.get(i + 1).add(loan);
+            banks.get(i).sendObligation(banks.get(i + 1), new TestPayment(loan, 5.0, 1, simulation));
+        }
+        simulation.advance_time();
+        for (Agent bank : banks) {
+            bank.step();
+        }
+
+        Simulation restored = simulation.snapshot().restore();
+        List<Agent> copies = restored.getAgents();
+        assertEquals(n, copies.size());
+        for (int i = 0; i + 1 < n; i++) {
+            Contract loan = copies.get(i).getMainLedger().getAllAssets().iterator().next();
+            assertSame(copies.get(i), loan.getAssetParty());
+            assertSame(copies.get(i + 1), loan.getLiabilityParty());
+            assertSame(loan, copies.get(i + 1).getMainLedger().getAllLiabilities().iterator().next());
+        }
+
+        // The obligations are still linked to the mailboxes of the restored agents
+        Agent debtor = copies.get(1);
+        for (Obligation obligation : debtor.get_obligations_due()) {
+            obligation.fulfil();
+        }
+        assertEquals(5.0, debtor.getCash_(), 0.0);
+        assertTrue(debtor.get_obligations_due().stream().allMatch(Obligation::isFulfilled));
+        debtor.step();
+        copies.get(0).step();
+        assertTrue(debtor.get_obligation_inbox().isEmpty());
+        assertTrue(copies.get(0).get_obligation_outbox().isEmpty());
+        assertEquals(1, banks.get(1).get_obligation_inbox().size());
+    }
+}
@@ -0,0 +1,58 @@
+package org.economicsl;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A contract with a fixed value for tests.
+ */
+public class TestLoan extends Contract {
+    private final Agent assetParty;
+    private final Agent liabilityParty;
+    private double value;
+
+    public TestLoan(Agent assetParty, Agent liabilityParty, double value) {
+        this.assetParty = assetParty;
+        this.liabilityParty = liabilityParty;
+        this.value = value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+        invalidateValue();
+    }
+
+    @Override
+    public Agent getAssetParty() {
+        return assetParty;
+    }
+
+    @Override
+    public Agent getLiabilityParty() {
+        return liabilityParty;
+    }
+
+    @Override
+    public double getValue(Agent me) {
+        return value;
+    }
+
+    @Override
+    public List<Action> getAvailableActions(Agent me) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getName(Agent me) {
+        return "Loan";
+    }
+
+    /**
+     * A subclass, for queries by supertype.
+     */
+    public static class Repo extends TestLoan {
+        public Repo(Agent assetParty, Agent liabilityParty, double value) {
+            super(assetParty, liabilityParty, value);
+        }
+    }
+}
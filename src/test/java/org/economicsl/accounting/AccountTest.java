@@ -0,0 +1,31 @@
+package org.economicsl.accounting;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AccountTest {
+
+    @Test
+    public void debitIncreasesGoodAccount() {
+        Account goods = new Account("wheat", AccountType.GOOD);
+        Account equity = new Account("equity", AccountType.EQUITY);
+
+        Account.doubleEntry(goods, equity, 10.0);
+
+        // GOOD accounts used to be debit-negative, which left this at -10.0
+        assertEquals(10.0, goods.getBalance(), 0.0);
+        assertEquals(10.0, equity.getBalance(), 0.0);
+    }
+
+    @Test
+    public void goodsAreValuedAtTheirPrice() {
+        Ledger ledger = new Ledger(null);
+        ledger.addGoods("wheat", 4.0, 2.5);
+        assertEquals(2.5, ledger.getPhysicalThingValue("wheat"), 1e-12);
+
+        ledger.revalueGoods("wheat", 3.0);
+        assertEquals(3.0, ledger.getPhysicalThingValue("wheat"), 1e-12);
+        assertEquals(12.0, ledger.getEquityValue(), 1e-12);
+    }
+}
@@ -0,0 +1,74 @@
+package org.economicsl.accounting;
+
+import org.economicsl.NotEnoughGoods;
+import org.economicsl.TestLoan;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ColumnarLedgerStoreTest {
+
+    private static void aggregatesSumEveryRow(boolean offHeap) throws NotEnoughGoods {
+        int rows = 1000;
+        ColumnarLedgerStore store = new ColumnarLedgerStore(rows, offHeap);
+        for (int row = 0; row < rows; row++) {
+            ColumnarLedger ledger = store.getLedger(row);
+            ledger.addCash(row);
+            ledger.addAsset(new TestLoan(null, null, 2.0));
+            ledger.addAsset(new TestLoan.Repo(null, null, 1.0));
+            ledger.addLiability(new TestLoan(null, null, 0.5));
+        }
+        // Goods registered after the store was created get columns of their own
+        for (int good = 0; good < 40; good++) {
+            store.getLedger(good).addGoods("store good " + good, 3.0, 2.0);
+        }
+        store.getLedger(7).payLiability(0.5, new TestLoan(null, null, 0.5));
+
+        double cash = rows * (rows - 1) / 2.0 - 0.5;
+        assertEquals(cash, store.getTotalCash(), 1e-9);
+        assertEquals(3.0 * rows, store.getTotalAssetValue(), 1e-9);
+        assertEquals(3.0 * rows, store.getTotalAssetValueOf(TestLoan.class), 1e-9);
+        assertEquals(1.0 * rows, store.getTotalAssetValueOf(TestLoan.Repo.class), 1e-9);
+        assertEquals(0.5 * rows - 0.5, store.getTotalLiabilityValue(), 1e-9);
+        assertEquals(3.0, store.getTotalGood("store good 39"), 0.0);
+        assertEquals(0.0, store.getTotalGood("never held"), 0.0);
+        assertEquals(cash + 3.0 * rows - (0.5 * rows - 0.5) + 40 * 6.0, store.getTotalEquityValue(), 1e-9);
+
+        ColumnarLedger ledger = store.getLedger(39);
+        assertEquals(3.0, ledger.getGood("store good 39"), 0.0);
+        assertEquals(2.0, ledger.getAssetValueOf(TestLoan.class) - ledger.getAssetValueOf(TestLoan.Repo.class), 1e-12);
+    }
+
+    @Test
+    public void aggregatesSumEveryRowOnTheHeap() throws NotEnoughGoods {
+        aggregatesSumEveryRow(false);
+    }
+
+    @Test
+    public void aggregatesSumEveryRowOffTheHeap() throws NotEnoughGoods {
+        aggregatesSumEveryRow(true);
+    }
+
+    @Test
+    public void withdrawalsCannotOverdraw() {
+        ColumnarLedger ledger = new ColumnarLedgerStore(1, true).getLedger(0);
+        ledger.addCash(2.0);
+        try {
+            ledger.payLiability(3.0, new TestLoan(null, null, 3.0));
+            fail();
+        } catch (NotEnoughGoods expected) {
+        }
+        try {
+            ledger.substractCash(3.0);
+            fail();
+        } catch (NotEnoughGoods expected) {
+        }
+        assertEquals(2.0, ledger.getCash(), 0.0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rowsOutsideTheStoreAreRejected() {
+        new ColumnarLedgerStore(4).getLedger(4);
+    }
+}
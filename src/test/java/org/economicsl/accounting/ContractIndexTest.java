@@ -0,0 +1,63 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Contract;
+import org.economicsl.TestLoan;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ContractIndexTest {
+
+    @Test
+    public void queriesBySupertypeFollowLaterAdditions() {
+        ContractIndex index = new ContractIndex();
+        TestLoan loan = new TestLoan(null, null, 1.0);
+        index.add(loan);
+        Collection<Contract> all = index.ofType(Contract.class);
+        assertEquals(1, all.size());
+
+        TestLoan.Repo repo = new TestLoan.Repo(null, null, 2.0);
+        index.add(repo);
+        assertEquals(2, all.size());
+        assertEquals(3.0, index.valueOf(Contract.class, c -> c.getValue(null)), 0.0);
+        assertEquals(2.0, index.valueOf(TestLoan.Repo.class, c -> c.getValue(null)), 0.0);
+        assertEquals(1, index.ofType(TestLoan.Repo.class).size());
+        assertSame(all, index.ofType(Contract.class));
+
+        ArrayList<Contract> visited = new ArrayList<>();
+        index.forEachOfType(TestLoan.class, visited::add);
+        assertEquals(2, visited.size());
+    }
+
+    @Test
+    public void removedContractsLeaveTheViews() {
+        ContractIndex index = new ContractIndex();
+        TestLoan loan = new TestLoan(null, null, 1.0);
+        TestLoan.Repo repo = new TestLoan.Repo(null, null, 2.0);
+        index.add(loan);
+        index.add(repo);
+        Collection<Contract> all = index.ofType(Contract.class);
+
+        index.remove(repo);
+        assertEquals(1, all.size());
+        assertTrue(all.contains(loan));
+        assertFalse(all.contains(repo));
+        assertEquals(1.0, index.valueOf(Contract.class, c -> c.getValue(null)), 0.0);
+
+        index.clear();
+        assertTrue(all.isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void viewsAreReadOnly() {
+        ContractIndex index = new ContractIndex();
+        index.add(new TestLoan(null, null, 1.0));
+        index.ofType(Contract.class).clear();
+    }
+}
@@ -0,0 +1,88 @@
+package org.economicsl.accounting;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GoodIdTest {
+
+    @Test
+    public void aNameIsInternedOnce() {
+        int id = GoodId.of("GoodIdTest wheat");
+        int count = GoodId.count();
+        assertEquals(id, GoodId.of("GoodIdTest wheat"));
+        assertEquals(id, GoodId.of(new String("GoodIdTest wheat")));
+        assertEquals(id, GoodId.find("GoodIdTest wheat"));
+        assertEquals(count, GoodId.count());
+        assertTrue(id < count);
+    }
+
+    @Test
+    public void namesRoundTrip() {
+        assertEquals("cash", GoodId.nameOf(GoodId.CASH));
+        assertEquals(GoodId.CASH, GoodId.of("cash"));
+        for (String name : new String[] {"GoodIdTest barley", "GoodIdTest oats", ""}) {
+            assertEquals(name, GoodId.nameOf(GoodId.of(name)));
+        }
+    }
+
+    @Test
+    public void findDoesNotRegister() {
+        int count = GoodId.count();
+        assertEquals(-1, GoodId.find("GoodIdTest never registered"));
+        assertEquals(-1, GoodId.find("GoodIdTest never registered"));
+        assertEquals(count, GoodId.count());
+    }
+
+    @Test
+    public void concurrentRegistrationHandsOutOneIdPerName() throws InterruptedException {
+        int names = 500;
+        int threadCount = 8;
+        int before = GoodId.count();
+        int[][] ids = new int[threadCount][names];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int[] seen = ids[t];
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < names; i++) order.add(i);
+            Collections.shuffle(order, new Random(t));
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i : order) {
+                    seen[i] = GoodId.of("GoodIdTest concurrent " + i);
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int t = 1; t < threadCount; t++) {
+            assertArrayEquals(ids[0], ids[t]);
+        }
+        Set<Integer> distinct = new HashSet<>();
+        for (int i = 0; i < names; i++) {
+            assertTrue(distinct.add(ids[0][i]));
+            assertTrue(ids[0][i] >= before);
+            assertEquals("GoodIdTest concurrent " + i, GoodId.nameOf(ids[0][i]));
+        }
+        assertEquals(before + names, GoodId.count());
+    }
+}
@@ -0,0 +1,74 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Agent;
+import org.economicsl.NotEnoughGoods;
+import org.economicsl.Simulation;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class HoldingsIndexTest {
+    private static final int AGENTS = 1000;
+
+    /**
+     * Every third agent holds no gold, and every seventh has sold all it had.
+     */
+    private static Simulation population() throws NotEnoughGoods {
+        Simulation simulation = new Simulation();
+        for (int i = 0; i < AGENTS; i++) {
+            Ledger ledger = new Agent(Integer.toString(i), simulation).getMainLedger();
+            ledger.addCash(i);
+            ledger.addGoods("silver", 1.0, 3.0);
+            if (i % 3 != 0) {
+                ledger.addGoods("gold", i % 10 + 1, 1.0 + i % 4);
+                if (i % 7 == 0) ledger.subtractGoods("gold", i % 10 + 1);
+            }
+        }
+        return simulation;
+    }
+
+    private void revaluingEveryHolderMatchesRevaluingEachLedger(boolean parallel) throws NotEnoughGoods {
+        Simulation indexed = population();
+        Simulation expected = population();
+
+        indexed.getHoldings().revalueAll("gold", 2.5, parallel);
+        for (Agent agent : expected.getAgents()) {
+            if (agent.getMainLedger().getGood("gold") > 0.0) agent.getMainLedger().revalueGoods("gold", 2.5);
+        }
+
+        List<Agent> agents = indexed.getAgents();
+        for (int i = 0; i < AGENTS; i++) {
+            Ledger actual = agents.get(i).getMainLedger();
+            Ledger recomputed = expected.getAgents().get(i).getMainLedger();
+            double gold = actual.getGood("gold");
+            assertEquals(recomputed.getPhysicalThingValue("gold") * gold, actual.getPhysicalThingValue("gold") * gold,
+                    1e-9);
+            assertEquals(2.5 * gold, actual.getPhysicalThingValue("gold") * gold, 1e-9);
+            assertEquals(recomputed.getEquityValue(), actual.getEquityValue(), 1e-9);
+            assertEquals(3.0, actual.getPhysicalThingValue("silver"), 0.0);
+        }
+        assertEquals(AGENTS - (AGENTS + 2) / 3, indexed.getHoldings().getHolderCount(GoodId.find("gold")));
+    }
+
+    @Test
+    public void revaluingEveryHolderMatchesRevaluingEachLedger() throws NotEnoughGoods {
+        revaluingEveryHolderMatchesRevaluingEachLedger(false);
+    }
+
+    @Test
+    public void revaluingInParallelMatchesRevaluingEachLedger() throws NotEnoughGoods {
+        revaluingEveryHolderMatchesRevaluingEachLedger(true);
+    }
+
+    @Test
+    public void aGoodNobodyHoldsIsIgnored() {
+        Simulation simulation = new Simulation();
+        Ledger ledger = new Agent("bank", simulation).getMainLedger();
+        ledger.addCash(10.0);
+        simulation.getHoldings().revalueAll("never held", 2.0);
+        assertEquals(10.0, ledger.getEquityValue(), 0.0);
+        assertEquals(-1, GoodId.find("never held"));
+    }
+}
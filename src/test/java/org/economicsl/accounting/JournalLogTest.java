@@ -0,0 +1,104 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Agent;
+import org.economicsl.Simulation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class JournalLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replayRebuildsTheLedgersAtATimestep() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("journal.bin");
+        Simulation simulation = new Simulation();
+        JournalLog log = new JournalLog(file);
+        simulation.setJournalLog(log);
+        Agent first = new Agent("first", simulation);
+        Agent second = new Agent("second", simulation);
+        for (int t = 0; t < 5; t++) {
+            first.getMainLedger().addCash(10.0);
+            second.getMainLedger().addGoods("wheat", 2.0, 3.0);
+            simulation.advance_time();
+        }
+        log.close();
+
+        TreeMap<Integer, JournalReplay.ReplayedLedger> ledgers = JournalReplay.replay(file, 2);
+        assertEquals(30.0, ledgers.get(first.getId()).getEquityValue(), 1e-12);
+        assertEquals(18.0, ledgers.get(second.getId()).getBalance("wheat"), 1e-12);
+
+        ledgers = JournalReplay.replay(file, 4);
+        assertEquals(first.getMainLedger().getEquityValue(), ledgers.get(first.getId()).getEquityValue(), 1e-12);
+        assertEquals(second.getMainLedger().getEquityValue(), ledgers.get(second.getId()).getEquityValue(), 1e-12);
+    }
+
+    @Test
+    public void eachResetStartsANewEpoch() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("journal.bin");
+        Simulation simulation = new Simulation();
+        Agent agent = new Agent("agent", simulation);
+        JournalLog log = new JournalLog(file);
+        simulation.setJournalLog(log);
+        for (int run = 1; run <= 2; run++) {
+            for (int t = 0; t < 3; t++) {
+                agent.getMainLedger().addCash(run);
+                simulation.advance_time();
+            }
+            if (run == 1) simulation.reset();
+        }
+        log.close();
+
+        assertEquals(3.0, JournalReplay.replay(file, 0, 5).get(agent.getId()).getEquityValue(), 1e-12);
+        assertEquals(4.0, JournalReplay.replay(file, 1, 1).get(agent.getId()).getEquityValue(), 1e-12);
+        assertEquals(6.0, JournalReplay.replay(file, 1, 5).get(agent.getId()).getEquityValue(), 1e-12);
+    }
+
+    @Test
+    public void aRestoredSimulationStartsFromItsOpeningBalances() throws Exception {
+        Simulation original = new Simulation();
+        Agent agent = new Agent("agent", original);
+        agent.getMainLedger().addCash(7.0);
+        original.advance_time();
+        Simulation restored = original.snapshot().restore();
+
+        Path file = folder.getRoot().toPath().resolve("journal.bin");
+        JournalLog log = new JournalLog(file);
+        restored.setJournalLog(log);
+        restored.getAgents().get(0).getMainLedger().addCash(1.0);
+        log.close();
+
+        JournalReplay.ReplayedLedger ledger = JournalReplay.replay(file, 1).get(agent.getId());
+        assertEquals(8.0, ledger.getEquityValue(), 1e-12);
+        assertEquals(8.0, ledger.getBalance("cash"), 1e-12);
+    }
+
+    @Test
+    public void postingsFromManyThreadsAreAllReplayed() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("journal.bin");
+        Simulation simulation = new Simulation();
+        JournalLog log = new JournalLog(file);
+        simulation.setJournalLog(log);
+        for (int i = 0; i < 64; i++) {
+            new Agent("agent " + i, simulation);
+        }
+        for (int t = 0; t < 50; t++) {
+            IntStream.range(0, 64).parallel()
+                    .forEach(i -> simulation.getAgents().get(i).getMainLedger().addCash(i));
+            simulation.advance_time();
+        }
+        log.close();
+
+        TreeMap<Integer, JournalReplay.ReplayedLedger> ledgers = JournalReplay.replay(file, 49);
+        for (Agent agent : simulation.getAgents()) {
+            assertEquals(agent.getMainLedger().getEquityValue(), ledgers.get(agent.getId()).getEquityValue(), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.economicsl.accounting;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class JournalTest {
+
+    @Test
+    public void aCommitAppliesEveryLeg() {
+        Account cash = new Account("cash", AccountType.ASSET);
+        Account loans = new Account("loans", AccountType.ASSET);
+        Account deposits = new Account("deposits", AccountType.LIABILITY);
+        Journal journal = new Journal();
+        for (int i = 0; i < 20; i++) {
+            journal.debit(cash, 3.0);
+            journal.debit(loans, 1.0);
+            journal.credit(deposits, 4.0);
+        }
+        assertEquals(60, journal.size());
+        assertEquals(0.0, cash.getBalance(), 0.0);
+
+        journal.commit();
+        assertEquals(60.0, cash.getBalance(), 1e-12);
+        assertEquals(20.0, loans.getBalance(), 1e-12);
+        assertEquals(80.0, deposits.getBalance(), 1e-12);
+        assertEquals(0, journal.size());
+    }
+
+    @Test
+    public void anUnbalancedJournalIsNotApplied() {
+        Account cash = new Account("cash", AccountType.ASSET);
+        Account equity = new Account("equity", AccountType.EQUITY);
+        Journal journal = new Journal();
+        journal.post(cash, equity, 5.0);
+        journal.debit(cash, 1.0);
+        assertFalse(journal.isBalanced());
+        try {
+            journal.commit();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0.0, cash.getBalance(), 0.0);
+        assertEquals(0.0, equity.getBalance(), 0.0);
+
+        journal.rollback();
+        assertEquals(0, journal.size());
+        journal.post(cash, equity, 2.0);
+        journal.commit();
+        assertEquals(2.0, cash.getBalance(), 0.0);
+        assertEquals(2.0, equity.getBalance(), 0.0);
+    }
+}
@@ -0,0 +1,180 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Agent;
+import org.economicsl.NotEnoughGoods;
+import org.economicsl.Simulation;
+import org.economicsl.TestLoan;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LedgerTest {
+
+    @Test
+    public void removingAnAssetReversesItsPosting() {
+        Simulation simulation = new Simulation();
+        Agent bank = new Agent("bank", simulation);
+        Agent borrower = new Agent("borrower", simulation);
+        Ledger ledger = bank.getMainLedger();
+        TestLoan loan = new TestLoan(bank, borrower, 10.0);
+        TestLoan other = new TestLoan(bank, borrower, 5.0);
+        ledger.addAsset(loan);
+        ledger.addAsset(other);
+
+        assertTrue(ledger.removeAsset(loan));
+        assertFalse(ledger.removeAsset(loan));
+        assertEquals(5.0, ledger.getAssetValue(), 1e-12);
+        assertEquals(5.0, ledger.getEquityValue(), 1e-12);
+        assertEquals(5.0, ledger.getAssetValueOf(TestLoan.class), 1e-12);
+        assertEquals(1, ledger.getAllAssets().size());
+        assertFalse(ledger.getAssetsOfType(TestLoan.class).contains(loan));
+        ledger.reconcile();
+    }
+
+    @Test
+    public void removingALiabilityReversesItsPosting() {
+        Simulation simulation = new Simulation();
+        Agent bank = new Agent("bank", simulation);
+        Agent lender = new Agent("lender", simulation);
+        Ledger ledger = bank.getMainLedger();
+        TestLoan loan = new TestLoan(lender, bank, 10.0);
+        ledger.addLiability(loan);
+
+        assertTrue(ledger.removeLiability(loan));
+        assertEquals(0.0, ledger.getLiabilityValue(), 1e-12);
+        assertEquals(0.0, ledger.getEquityValue(), 1e-12);
+        assertTrue(ledger.getAllLiabilities().isEmpty());
+        assertTrue(ledger.getLiabilitiesOfType(TestLoan.class).isEmpty());
+    }
+
+    @Test
+    public void aRemovedContractIsRevaluedWhenAddedAgain() {
+        Simulation simulation = new Simulation();
+        Agent bank = new Agent("bank", simulation);
+        Ledger ledger = bank.getMainLedger();
+        TestLoan loan = new TestLoan(bank, null, 10.0);
+        ledger.addAsset(loan);
+        ledger.removeAsset(loan);
+
+        loan.setValue(4.0);
+        ledger.addAsset(loan);
+        assertEquals(4.0, ledger.getAssetValue(), 1e-12);
+        assertEquals(4.0, ledger.getAssetValueOf(TestLoan.class), 1e-12);
+    }
+
+    @Test
+    public void sellingAndPayingMoveCashLikeTheColumnarLedger() throws NotEnoughGoods {
+        Simulation simulation = new Simulation();
+        Agent bank = new Agent("bank", simulation);
+        Agent other = new Agent("other", simulation);
+        Ledger ledger = bank.getMainLedger();
+        ColumnarLedger columnar = new ColumnarLedgerStore(1).getLedger(0);
+        TestLoan asset = new TestLoan(bank, other, 10.0);
+        TestLoan liability = new TestLoan(other, bank, 8.0);
+        for (LedgerAPI l : new LedgerAPI[] {ledger, columnar}) {
+            l.addCash(5.0);
+            l.addAsset(asset);
+            l.addLiability(liability);
+            l.sellAsset(4.0, TestLoan.class);
+            l.payLiability(3.0, liability);
+        }
+
+        assertEquals(6.0, ledger.getCash(), 1e-12);
+        assertEquals(6.0, ledger.getCashAccount().getBalance(), 1e-12);
+        assertEquals(columnar.getCash(), ledger.getCash(), 1e-12);
+        assertEquals(columnar.getAssetValue(), ledger.getAssetValue(), 1e-12);
+        assertEquals(columnar.getLiabilityValue(), ledger.getLiabilityValue(), 1e-12);
+    }
+
+    @Test
+    public void payingMoreThanTheCashThrows() {
+        Ledger ledger = new Ledger(null);
+        TestLoan liability = new TestLoan(null, null, 8.0);
+        ledger.addCash(5.0);
+        ledger.addLiability(liability);
+        try {
+            ledger.payLiability(6.0, liability);
+            fail();
+        } catch (NotEnoughGoods expected) {
+        }
+        assertEquals(5.0, ledger.getCash(), 0.0);
+        assertEquals(8.0, ledger.getLiabilityValue(), 0.0);
+    }
+
+    @Test
+    public void encumberedGoodsCannotBeSubtracted() throws NotEnoughGoods {
+        Ledger ledger = new Ledger(null);
+        ledger.addGoods("MBS", 10.0, 2.0);
+        ledger.encumber("MBS", 6.0);
+        assertEquals(4.0, ledger.getUnencumbered("MBS"), 0.0);
+        assertEquals(20.0, ledger.getEquityValue(), 1e-12);
+        try {
+            ledger.subtractGoods("MBS", 5.0);
+            fail();
+        } catch (NotEnoughGoods expected) {
+        }
+        assertEquals(10.0, ledger.getGood("MBS"), 0.0);
+
+        ledger.release("MBS", 2.0);
+        ledger.subtractGoods("MBS", 5.0);
+        assertEquals(5.0, ledger.getGood("MBS"), 0.0);
+        assertEquals(4.0, ledger.getEncumbered("MBS"), 0.0);
+    }
+
+    @Test
+    public void encumberingSeveralGoodsIsAllOrNothing() throws NotEnoughGoods {
+        Ledger ledger = new Ledger(null);
+        ledger.addCash(10.0);
+        ledger.addGoods("MBS", 3.0, 1.0);
+        int[] goods = {GoodId.CASH, GoodId.of("MBS")};
+        try {
+            ledger.encumber(goods, new double[] {5.0, 4.0});
+            fail();
+        } catch (NotEnoughGoods expected) {
+        }
+        assertEquals(0.0, ledger.getEncumberedCash(), 0.0);
+
+        ledger.encumber(goods, new double[] {5.0, 3.0});
+        try {
+            ledger.release(goods, new double[] {5.0, 4.0});
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(5.0, ledger.getEncumberedCash(), 0.0);
+        assertEquals(3.0, ledger.getEncumbered("MBS"), 0.0);
+    }
+
+    @Test
+    public void goodsNeverHeldAreNotRegisteredByEncumbrance() throws NotEnoughGoods {
+        Ledger ledger = new Ledger(null);
+        ledger.release("good never held", 0.0);
+        ledger.encumber("good never held", 0.0);
+        ledger.release(GoodId.count() + 10, 0.0);
+        assertEquals(-1, GoodId.find("good never held"));
+        try {
+            ledger.release("good never held", 1.0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void encumberedCashCannotPayALiability() throws NotEnoughGoods {
+        Ledger ledger = new Ledger(null);
+        TestLoan liability = new TestLoan(null, null, 8.0);
+        ledger.addCash(10.0);
+        ledger.addLiability(liability);
+        ledger.encumber("cash", 6.0);
+        try {
+            ledger.payLiability(5.0, liability);
+            fail();
+        } catch (NotEnoughGoods expected) {
+        }
+        ledger.payLiability(4.0, liability);
+        assertEquals(6.0, ledger.getCash(), 0.0);
+        assertEquals(0.0, ledger.getUnencumberedCash(), 0.0);
+    }
+}
@@ -0,0 +1,67 @@
+package org.economicsl.accounting;
+
+import org.economicsl.Agent;
+import org.economicsl.Simulation;
+import org.economicsl.TestLoan;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ValuationCacheTest {
+
+    private static class CountingLoan extends TestLoan {
+        private int valuations;
+
+        CountingLoan(Agent assetParty, double value) {
+            super(assetParty, null, value);
+        }
+
+        @Override
+        public double getValue(Agent me) {
+            valuations++;
+            return super.getValue(me);
+        }
+    }
+
+    @Test
+    public void valuesAreComputedOncePerTimestep() {
+        Simulation simulation = new Simulation();
+        Agent bank = new Agent("bank", simulation);
+        CountingLoan loan = new CountingLoan(bank, 10.0);
+        ValuationCache cache = new ValuationCache();
+
+        assertEquals(10.0, cache.valueOf(loan, bank), 0.0);
+        assertEquals(10.0, cache.valueOf(loan, bank), 0.0);
+        assertEquals(1, loan.valuations);
+
+        simulation.advance_time();
+        cache.valueOf(loan, bank);
+        assertEquals(2, loan.valuations);
+
+        simulation.invalidateValuations();
+        cache.valueOf(loan, bank);
+        assertEquals(3, loan.valuations);
+
+        loan.setValue(12.0);
+        assertEquals(12.0, cache.valueOf(loan, bank), 0.0);
+        assertEquals(12.0, cache.valueOf(loan, bank), 0.0);
+        assertEquals(4, loan.valuations);
+    }
+
+    @Test
+    public void removedContractsAreValuedAgain() {
+        Simulation simulation = new Simulation();
+        Agent bank = new Agent("bank", simulation);
+        CountingLoan loan = new CountingLoan(bank, 10.0);
+        ValuationCache cache = new ValuationCache();
+        cache.valueOf(loan, bank);
+
+        cache.remove(loan);
+        cache.valueOf(loan, bank);
+        assertEquals(2, loan.valuations);
+
+        cache.clear();
+        cache.valueOf(loan, bank);
+        assertEquals(3, loan.valuations);
+    }
+}
@@ -0,0 +1,71 @@
+package org.economicsl.obligations;
+
+import org.economicsl.Agent;
+import org.economicsl.Simulation;
+import org.economicsl.TestLoan;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClearingHouseTest {
+
+    private static TestPayment owe(Simulation simulation, Agent debtor, Agent creditor, double amount) {
+        TestPayment payment = new TestPayment(new TestLoan(creditor, debtor, amount), amount, 1, simulation);
+        creditor.sendObligation(debtor, payment);
+        return payment;
+    }
+
+    private static void stepToNextTimestep(Simulation simulation) {
+        simulation.advance_time();
+        for (Agent agent : simulation.getAgents()) {
+            agent.step();
+        }
+    }
+
+    @Test
+    public void onlyNetPositionsAreSettled() {
+        Simulation simulation = new Simulation();
+        Agent a = new Agent("a", simulation);
+        Agent b = new Agent("b", simulation);
+        Agent c = new Agent("c", simulation);
+        a.addCash(10.0);
+        TestPayment ab = owe(simulation, a, b, 30.0);
+        TestPayment bc = owe(simulation, b, c, 30.0);
+        TestPayment ca = owe(simulation, c, a, 20.0);
+        stepToNextTimestep(simulation);
+
+        assertEquals(3, new ClearingHouse().clear(simulation));
+        assertTrue(ab.isFulfilled() && bc.isFulfilled() && ca.isFulfilled());
+        assertEquals(0.0, a.getCash_(), 1e-12);
+        assertEquals(0.0, b.getCash_(), 1e-12);
+        assertEquals(10.0, c.getCash_(), 1e-12);
+    }
+
+    @Test
+    public void agentsThatCannotPayAreLeftOut() throws Exception {
+        Simulation simulation = new Simulation();
+        Agent a = new Agent("a", simulation);
+        Agent b = new Agent("b", simulation);
+        Agent c = new Agent("c", simulation);
+        Agent d = new Agent("d", simulation);
+        a.addCash(5.0);
+        c.addCash(50.0);
+        c.getMainLedger().encumber("cash", 45.0);
+        TestPayment ab = owe(simulation, a, b, 30.0);
+        TestPayment ca = owe(simulation, c, a, 20.0);
+        TestPayment db = owe(simulation, d, b, 5.0);
+        d.addCash(5.0);
+        stepToNextTimestep(simulation);
+
+        // a owes 10 net but has 5, and c owes 20 with only 5 unencumbered, which leaves d paying b
+        assertEquals(1, new ClearingHouse().clear(simulation));
+        assertFalse(ab.isFulfilled() || ca.isFulfilled());
+        assertTrue(db.isFulfilled());
+        assertEquals(5.0, a.getCash_(), 1e-12);
+        assertEquals(5.0, b.getCash_(), 1e-12);
+        assertEquals(50.0, c.getCash_(), 1e-12);
+        assertEquals(0.0, d.getCash_(), 1e-12);
+    }
+}
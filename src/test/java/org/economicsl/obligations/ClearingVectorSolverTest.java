@@ -0,0 +1,61 @@
+package org.economicsl.obligations;
+
+import org.economicsl.Agent;
+import org.economicsl.Simulation;
+import org.economicsl.TestLoan;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClearingVectorSolverTest {
+    private static final int[] DEBTORS = {0, 1};
+    private static final int[] CREDITORS = {1, 2};
+    private static final double[] AMOUNTS = {10.0, 10.0};
+    private static final double[] EXTERNAL = {4.0, 0.0, 0.0};
+
+    @Test
+    public void aDefaultPropagatesDownAChain() {
+        ClearingVectorSolver.ClearingVector result =
+                new ClearingVectorSolver().solve(3, DEBTORS, CREDITORS, AMOUNTS, EXTERNAL);
+        assertArrayEquals(new double[] {4.0, 4.0, 0.0}, result.getPayments(), 1e-12);
+        assertArrayEquals(new boolean[] {true, true, false}, result.getDefaulted());
+        assertTrue(result.isConverged());
+    }
+
+    @Test
+    public void defaultCostsReduceThePayments() {
+        ClearingVectorSolver.ClearingVector result =
+                new ClearingVectorSolver(0.5, 1.0).solve(3, DEBTORS, CREDITORS, AMOUNTS, EXTERNAL);
+        assertArrayEquals(new double[] {2.0, 2.0, 0.0}, result.getPayments(), 1e-12);
+    }
+
+    @Test
+    public void stoppingAtTheMaximumNumberOfIterationsIsReported() {
+        ClearingVectorSolver solver = new ClearingVectorSolver();
+        solver.setMaxIterations(2);
+        ClearingVectorSolver.ClearingVector result = solver.solve(3, DEBTORS, CREDITORS, AMOUNTS, EXTERNAL);
+        assertEquals(2, result.getIterations());
+        assertFalse(result.isConverged());
+    }
+
+    @Test
+    public void onlyObligationsDueAtTheCurrentTimestepAreCleared() {
+        Simulation simulation = new Simulation();
+        Agent creditor = new Agent("creditor", simulation);
+        Agent debtor = new Agent("debtor", simulation);
+        debtor.addCash(40.0);
+        creditor.sendObligation(debtor, new TestPayment(new TestLoan(creditor, debtor, 30.0), 30.0, 1, simulation));
+        creditor.sendObligation(debtor, new TestPayment(new TestLoan(creditor, debtor, 30.0), 30.0, 3, simulation));
+        simulation.advance_time();
+        for (Agent agent : simulation.getAgents()) {
+            agent.step();
+        }
+
+        ClearingVectorSolver.ClearingVector result = new ClearingVectorSolver().solve(simulation, Agent::getCash_);
+        assertArrayEquals(new double[] {0.0, 30.0}, result.getPayments(), 1e-12);
+        assertArrayEquals(new boolean[] {false, false}, result.getDefaulted());
+    }
+}
@@ -0,0 +1,61 @@
+package org.economicsl.obligations;
+
+import org.economicsl.Simulation;
+import org.economicsl.TestLoan;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ObligationCalendarTest {
+
+    private static TestPayment payment(Simulation simulation, double amount) {
+        return new TestPayment(new TestLoan(null, null, amount), amount, 1, simulation);
+    }
+
+    @Test
+    public void obligationsAreFiledByTimestep() {
+        Simulation simulation = new Simulation();
+        ObligationCalendar calendar = new ObligationCalendar();
+        TestPayment first = payment(simulation, 1.0);
+        TestPayment second = payment(simulation, 2.0);
+        calendar.add(3, first);
+        calendar.add(3, second);
+        calendar.addToTotal(3, 3.0);
+        calendar.add(5, payment(simulation, 4.0));
+
+        assertEquals(2, calendar.get(3).size());
+        assertEquals(3.0, calendar.getTotal(3), 0.0);
+        assertNull(calendar.get(4));
+        assertEquals(0.0, calendar.getTotal(4), 0.0);
+
+        ArrayList<Obligation> drained = new ArrayList<>();
+        calendar.drain(3, drained::add);
+        assertEquals(2, drained.size());
+        assertSame(first, drained.get(0));
+        assertNull(calendar.get(3));
+        assertEquals(0.0, calendar.getTotal(3), 0.0);
+    }
+
+    @Test
+    public void emptiedSlotsAreReused() {
+        Simulation simulation = new Simulation();
+        ObligationCalendar calendar = new ObligationCalendar();
+        calendar.add(1, payment(simulation, 1.0));
+        ArrayList<Obligation> slot = calendar.get(1);
+        calendar.discard(1);
+        assertTrue(calendar.isEmpty());
+
+        calendar.add(2, payment(simulation, 2.0));
+        assertSame(slot, calendar.get(2));
+        assertEquals(1, slot.size());
+
+        calendar.clear();
+        assertTrue(calendar.isEmpty());
+        assertTrue(slot.isEmpty());
+    }
+}
@@ -0,0 +1,115 @@
+package org.economicsl.obligations;
+
+import org.economicsl.Agent;
+import org.economicsl.Simulation;
+import org.economicsl.TestLoan;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ObligationsAndGoodsMailboxTest {
+
+    private static class Bank extends Agent {
+        Bank(String name, Simulation simulation) {
+            super(name, simulation);
+        }
+
+        ObligationsAndGoodsMailbox mailbox() {
+            return obligationsAndGoodsMailbox;
+        }
+    }
+
+    private static void stepAgents(Simulation simulation) {
+        for (Agent agent : simulation.getAgents()) {
+            agent.step();
+        }
+    }
+
+    @Test
+    public void obligationsFallDueAtTheirPaymentDate() {
+        Simulation simulation = new Simulation();
+        Bank creditor = new Bank("creditor", simulation);
+        Bank debtor = new Bank("debtor", simulation);
+        debtor.addCash(100.0);
+        creditor.sendObligation(debtor, new TestPayment(new TestLoan(creditor, debtor, 50.0), 30.0, 2, simulation));
+        stepAgents(simulation);
+        simulation.advance_time();
+
+        stepAgents(simulation);
+        assertEquals(30.0, debtor.mailbox().getAllPendingObligations(), 0.0);
+        assertEquals(0.0, debtor.mailbox().getMaturedObligations(), 0.0);
+        simulation.advance_time();
+
+        stepAgents(simulation);
+        assertEquals(30.0, debtor.mailbox().getMaturedObligations(), 0.0);
+        assertEquals(1, debtor.get_obligations_due().size());
+        debtor.mailbox().fulfilMaturedRequests();
+        assertEquals(70.0, debtor.getCash_(), 0.0);
+        assertEquals(0.0, debtor.mailbox().getAllPendingObligations(), 0.0);
+        assertEquals(30.0, creditor.mailbox().getPendingPaymentsToMe(), 0.0);
+        simulation.advance_time();
+
+        stepAgents(simulation);
+        assertTrue(debtor.get_obligation_inbox().isEmpty());
+        assertTrue(creditor.get_obligation_outbox().isEmpty());
+        assertEquals(0.0, creditor.mailbox().getPendingPaymentsToMe(), 0.0);
+    }
+
+    @Test
+    public void anObligationDeliveredAfterItsPaymentDateIsDueRightAway() {
+        Simulation simulation = new Simulation();
+        Bank creditor = new Bank("creditor", simulation);
+        Bank debtor = new Bank("debtor", simulation);
+        debtor.addCash(100.0);
+        TestPayment late = new TestPayment(new TestLoan(creditor, debtor, 50.0), 30.0, 1, simulation);
+        for (int t = 0; t < 3; t++) {
+            stepAgents(simulation);
+            simulation.advance_time();
+        }
+
+        creditor.sendObligation(debtor, late);
+        stepAgents(simulation);
+        assertEquals(30.0, debtor.mailbox().getMaturedObligations(), 0.0);
+        assertEquals(1, debtor.get_obligations_due().size());
+        debtor.mailbox().fulfilMaturedRequests();
+        assertEquals(70.0, debtor.getCash_(), 0.0);
+        assertEquals(0.0, debtor.mailbox().getMaturedObligations(), 0.0);
+        assertEquals(0.0, debtor.mailbox().getAllPendingObligations(), 0.0);
+        simulation.advance_time();
+
+        stepAgents(simulation);
+        assertTrue(debtor.get_obligation_inbox().isEmpty());
+    }
+
+    @Test
+    public void obligationsOfDeadDebtorsLeaveTheOutbox() {
+        Simulation simulation = new Simulation();
+        Bank creditor = new Bank("creditor", simulation);
+        Bank debtor = new Bank("debtor", simulation);
+        Bank other = new Bank("other", simulation);
+        creditor.sendObligation(debtor, new TestPayment(new TestLoan(creditor, debtor, 10.0), 10.0, 2, simulation));
+        creditor.sendObligation(other, new TestPayment(new TestLoan(creditor, other, 10.0), 10.0, 2, simulation));
+        stepAgents(simulation);
+        assertEquals(2, creditor.get_obligation_outbox().size());
+
+        debtor.setAlive(false);
+        stepAgents(simulation);
+        assertEquals(1, creditor.get_obligation_outbox().size());
+        assertEquals(other, creditor.get_obligation_outbox().iterator().next().getFrom());
+    }
+
+    @Test
+    public void obligationsSentToADeadDebtorLeaveTheOutbox() {
+        Simulation simulation = new Simulation();
+        Bank creditor = new Bank("creditor", simulation);
+        Bank debtor = new Bank("debtor", simulation);
+        debtor.setAlive(false);
+        stepAgents(simulation);
+
+        creditor.sendObligation(debtor, new TestPayment(new TestLoan(creditor, debtor, 10.0), 10.0, 2, simulation));
+        assertEquals(1, creditor.get_obligation_outbox().size());
+        stepAgents(simulation);
+        assertTrue(creditor.get_obligation_outbox().isEmpty());
+    }
+}
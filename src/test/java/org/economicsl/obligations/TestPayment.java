@@ -0,0 +1,26 @@
+package org.economicsl.obligations;
+
+import org.economicsl.Contract;
+import org.economicsl.NotEnoughGoods;
+import org.economicsl.Simulation;
+
+/**
+ * An obligation to pay cash, for tests.
+ */
+public class TestPayment extends Obligation {
+
+    public TestPayment(Contract contract, double amount, int timeLeftToPay, Simulation simulation) {
+        super(contract, amount, timeLeftToPay, simulation);
+    }
+
+    @Override
+    public void fulfil() {
+        try {
+            getFrom().getMainLedger().substractCash(getAmount());
+        } catch (NotEnoughGoods e) {
+            throw new IllegalStateException(e);
+        }
+        getTo().addCash(getAmount());
+        setFulfilled();
+    }
+}
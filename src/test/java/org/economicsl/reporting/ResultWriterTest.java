@@ -0,0 +1,113 @@
+package org.economicsl.reporting;
+
+import org.economicsl.Agent;
+import org.economicsl.Simulation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResultWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rowsAreWrittenInOrderAcrossBlocks() throws Exception {
+        Path results = folder.getRoot().toPath().resolve("results.bin");
+        Path csv = folder.getRoot().toPath().resolve("results.csv");
+        try (ResultWriter writer = new ResultWriter(results, 2)) {
+            writer.addMetric("cash", Agent::getCash_);
+            writer.addTotal("total", s -> s.getAgents().stream().mapToDouble(Agent::getCash_).sum());
+            Simulation simulation = new Simulation();
+            Agent first = new Agent("Bank 1", simulation);
+            Agent second = new Agent("Bank 2", simulation);
+            for (int t = 0; t < 5; t++) {
+                first.addCash(1.0);
+                second.addCash(2.0);
+                writer.record(7_000_000_000L, simulation);
+                simulation.advance_time();
+            }
+        }
+
+        ResultFile.toCsv(results, csv);
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertEquals(6, lines.size());
+        assertEquals("Simulation number, Timestep, Bank 1_cash, Bank 2_cash, total", lines.get(0));
+        assertEquals("7000000000, 0, 1.0, 2.0, 3.0", lines.get(1));
+        assertEquals("7000000000, 4, 5.0, 10.0, 15.0", lines.get(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blocksOver2GBAreRejected() throws Exception {
+        Path results = folder.getRoot().toPath().resolve("results.bin");
+        try (ResultWriter writer = new ResultWriter(results, 1 << 28)) {
+            writer.addMetric("cash", Agent::getCash_);
+            Simulation simulation = new Simulation();
+            new Agent("Bank 1", simulation);
+            new Agent("Bank 2", simulation);
+            writer.record(1, simulation);
+        }
+    }
+
+    @Test
+    public void rowsRecordedFromManyThreadsAreKeptWhole() throws Exception {
+        Path results = folder.getRoot().toPath().resolve("results.bin");
+        Path csv = folder.getRoot().toPath().resolve("results.csv");
+        try (ResultWriter writer = new ResultWriter(results, 16)) {
+            writer.addMetric("cash", Agent::getCash_);
+            writer.addTotal("total", s -> s.getAgents().stream().mapToDouble(Agent::getCash_).sum());
+            Thread[] threads = new Thread[8];
+            for (int n = 0; n < threads.length; n++) {
+                long simulationNumber = n;
+                threads[n] = new Thread(() -> {
+                    Simulation simulation = new Simulation();
+                    new Agent("Bank 1", simulation).addCash(simulationNumber);
+                    new Agent("Bank 2", simulation).addCash(simulationNumber);
+                    for (int t = 0; t < 100; t++) {
+                        writer.record(simulationNumber, simulation);
+                        simulation.advance_time();
+                    }
+                });
+                threads[n].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        ResultFile.toCsv(results, csv);
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertEquals(1 + 8 * 100, lines.size());
+        Set<String> keys = new HashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] cells = line.split(", ");
+            double n = Long.parseLong(cells[0]);
+            assertEquals(line, n, Double.parseDouble(cells[2]), 0.0);
+            assertEquals(line, n, Double.parseDouble(cells[3]), 0.0);
+            assertEquals(line, 2 * n, Double.parseDouble(cells[4]), 0.0);
+            keys.add(cells[0] + "/" + cells[1]);
+        }
+        assertEquals(8 * 100, keys.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void filesOfAnotherVersionAreRejected() throws Exception {
+        Path results = folder.getRoot().toPath().resolve("results.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(results))) {
+            out.writeInt(ResultWriter.MAGIC);
+            out.writeInt(ResultWriter.VERSION + 1);
+            out.writeInt(0);
+        }
+        ResultFile.toCsv(results, folder.getRoot().toPath().resolve("results.csv"));
+    }
+}